@@ -0,0 +1,201 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Compares the CSV output of a {@link ColdStartBenchmark} run ({@code -rf csv -rff <file>}) against a baseline
+ * properties file that maps benchmark keys to scores, and fails when a score regresses past the tolerance.
+ * <pre>
+ *   java -cp benchmarks.jar org.terracotta.config.benchmarks.ColdStartBaseline &lt;results.csv&gt; &lt;baseline.properties&gt; [tolerance] [--update]
+ * </pre>
+ * The tolerance is a fraction of the baseline score (default {@code 0.25}). With {@code --update} the baseline file is
+ * rewritten from the results instead, keeping the file's leading comment block. Benchmarks missing from the baseline
+ * fail the check just like regressions do, so that an unrecorded baseline can never pass silently.
+ */
+public final class ColdStartBaseline {
+
+  private static final double DEFAULT_TOLERANCE = 0.25;
+
+  private ColdStartBaseline() {
+    //
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: ColdStartBaseline <results.csv> <baseline.properties> [tolerance] [--update]");
+      System.exit(2);
+    }
+    Path results = Paths.get(args[0]);
+    Path baseline = Paths.get(args[1]);
+    double tolerance = DEFAULT_TOLERANCE;
+    boolean update = false;
+    for (int i = 2; i < args.length; i++) {
+      if (args[i].trim().isEmpty()) {
+        continue;
+      } else if ("--update".equals(args[i])) {
+        update = true;
+      } else {
+        tolerance = Double.parseDouble(args[i]);
+      }
+    }
+
+    Map<String, Double> scores = readScores(results);
+    if (update) {
+      writeBaseline(baseline, scores);
+      System.out.println("Wrote " + scores.size() + " cold-start baseline score(s) to " + baseline);
+      return;
+    }
+
+    List<String> failures = compare(scores, readBaseline(baseline), tolerance);
+    if (!failures.isEmpty()) {
+      System.err.println("Cold-start check failed against " + baseline + " (tolerance " + Math.round(tolerance * 100) + "%):");
+      for (String failure : failures) {
+        System.err.println("  " + failure);
+      }
+      System.exit(1);
+    }
+  }
+
+  static List<String> compare(Map<String, Double> scores, Map<String, Double> baseline, double tolerance) {
+    List<String> regressions = new ArrayList<>();
+    for (Map.Entry<String, Double> score : scores.entrySet()) {
+      Double expected = baseline.get(score.getKey());
+      if (expected == null) {
+        String line = score.getKey() + ": " + score.getValue() + " (no baseline recorded, rerun with --update on the reference machine)";
+        System.out.println(line);
+        regressions.add(line);
+      } else {
+        double limit = expected * (1 + tolerance);
+        String line = score.getKey() + ": " + score.getValue() + " (baseline " + expected + ", limit " + limit + ")";
+        System.out.println(line);
+        if (score.getValue() > limit) {
+          regressions.add(line);
+        }
+      }
+    }
+    return regressions;
+  }
+
+  static Map<String, Double> readScores(Path csv) throws IOException {
+    List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+    if (lines.isEmpty()) {
+      throw new IOException("Empty result file " + csv);
+    }
+    List<String> header = splitCsv(lines.get(0));
+    int benchmarkColumn = header.indexOf("Benchmark");
+    int scoreColumn = header.indexOf("Score");
+    if (benchmarkColumn < 0 || scoreColumn < 0) {
+      throw new IOException("Not a JMH CSV result file: " + csv);
+    }
+
+    Map<String, Double> scores = new LinkedHashMap<>();
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      List<String> row = splitCsv(line);
+      StringBuilder key = new StringBuilder(row.get(benchmarkColumn));
+      for (int i = 0; i < header.size() && i < row.size(); i++) {
+        if (header.get(i).startsWith("Param: ") && !row.get(i).isEmpty()) {
+          key.append('[').append(header.get(i).substring("Param: ".length())).append('-').append(row.get(i)).append(']');
+        }
+      }
+      scores.put(key.toString(), Double.parseDouble(row.get(scoreColumn)));
+    }
+    return scores;
+  }
+
+  private static Map<String, Double> readBaseline(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      properties.load(in);
+    }
+    Map<String, Double> baseline = new TreeMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      baseline.put(key, Double.parseDouble(properties.getProperty(key)));
+    }
+    return baseline;
+  }
+
+  private static void writeBaseline(Path file, Map<String, Double> scores) throws IOException {
+    List<String> lines = new ArrayList<>();
+    if (Files.exists(file)) {
+      // keep the license and usage comments, which Properties.store would drop
+      for (String line : Files.readAllLines(file, StandardCharsets.ISO_8859_1)) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("!")) {
+          lines.add(line);
+        } else {
+          break;
+        }
+      }
+    }
+    for (Map.Entry<String, Double> score : new TreeMap<>(scores).entrySet()) {
+      lines.add(escapeKey(score.getKey()) + "=" + score.getValue());
+    }
+    Files.write(file, lines, StandardCharsets.ISO_8859_1);
+  }
+
+  private static String escapeKey(String key) {
+    StringBuilder escaped = new StringBuilder(key.length());
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c == ' ' || c == ':' || c == '=' || c == '#' || c == '!' || c == '\\') {
+        escaped.append('\\');
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  private static List<String> splitCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = !quoted;
+        }
+      } else if (c == ',' && !quoted) {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.terracotta.config.TCConfigurationParser;
+import org.terracotta.config.TcConfiguration;
+import org.terracotta.config.service.ExtendedConfigParser;
+import org.terracotta.config.service.ServiceConfigParser;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-shot measurements of the first configuration parse in a fresh JVM.
+ * <p>
+ * Every measurement runs in its own fork with no warmup, so it includes class loading and JIT-less execution.
+ * {@link #firstParse(Document)} is the time to the first {@link TcConfiguration}; the other benchmarks each measure one of the
+ * phases that first parse pays for, again from a cold JVM, so they give a per-phase breakdown. Phases measured in
+ * isolation each pay for the class loading they trigger, so their sum is an upper bound of {@code firstParse}.
+ * <p>
+ * {@link ColdStartBaseline} compares a CSV result of this suite against a stored baseline.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Document {
+
+    @Param({"SMALL", "LARGE"})
+    public ConfigSize size;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+      file = File.createTempFile("tc-config-" + size.name().toLowerCase(), ".xml");
+      Files.write(file.toPath(), size.generate().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @Benchmark
+  public TcConfiguration firstParse(Document document) throws Exception {
+    return TCConfigurationParser.parse(document.file);
+  }
+
+  @Benchmark
+  public JAXBContext jaxbContext() throws Exception {
+    return JAXBContext.newInstance("org.terracotta.config", TCConfigurationParser.class.getClassLoader());
+  }
+
+  @Benchmark
+  public void pluginDiscovery(Blackhole blackhole) {
+    for (ServiceConfigParser parser : ServiceLoader.load(ServiceConfigParser.class)) {
+      blackhole.consume(parser);
+    }
+    for (ExtendedConfigParser parser : ServiceLoader.load(ExtendedConfigParser.class)) {
+      blackhole.consume(parser);
+    }
+  }
+
+  @Benchmark
+  public Schema schemaCompilation() throws Exception {
+    List<Source> sources = new ArrayList<>();
+    sources.add(new StreamSource(TCConfigurationParser.TERRACOTTA_XML_SCHEMA.openStream()));
+    sources.add(new ResourceServiceConfigParser().getXmlSchema());
+    return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(sources.toArray(new Source[0]));
+  }
+}
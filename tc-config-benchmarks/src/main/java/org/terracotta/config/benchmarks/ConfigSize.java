@@ -0,0 +1,77 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+/**
+ * Shapes of the generated configurations the benchmarks run against.
+ */
+public enum ConfigSize {
+  SMALL(1, 4, 1, 2),
+  MEDIUM(8, 32, 8, 8),
+  LARGE(64, 256, 64, 32);
+
+  private final int servers;
+  private final int properties;
+  private final int plugins;
+  private final int settingsPerPlugin;
+
+  ConfigSize(int servers, int properties, int plugins, int settingsPerPlugin) {
+    this.servers = servers;
+    this.properties = properties;
+    this.plugins = plugins;
+    this.settingsPerPlugin = settingsPerPlugin;
+  }
+
+  /**
+   * Generates a valid {@code tc-config} document of this size.
+   *
+   * @return the document text
+   */
+  public String generate() {
+    StringBuilder sb = new StringBuilder(1024);
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    sb.append("<tc-config xmlns=\"http://www.terracotta.org/config\" xmlns:b=\"").append(ResourceServiceConfigParser.NAMESPACE).append("\">\n");
+    sb.append("  <plugins>\n");
+    for (int i = 0; i < plugins; i++) {
+      sb.append("    <service>\n");
+      sb.append("      <b:resource name=\"resource-").append(i).append("\">\n");
+      for (int j = 0; j < settingsPerPlugin; j++) {
+        sb.append("        <b:setting key=\"key-").append(j).append("\" value=\"value-").append(i).append('-').append(j).append("\"/>\n");
+      }
+      sb.append("      </b:resource>\n");
+      sb.append("    </service>\n");
+    }
+    sb.append("  </plugins>\n");
+    sb.append("  <tc-properties>\n");
+    for (int i = 0; i < properties; i++) {
+      sb.append("    <property name=\"property.").append(i).append("\" value=\"").append(i).append("\"/>\n");
+    }
+    sb.append("  </tc-properties>\n");
+    sb.append("  <servers>\n");
+    for (int i = 0; i < servers; i++) {
+      int port = 9410 + i * 100;
+      sb.append("    <server host=\"localhost\" name=\"server-").append(i).append("\">\n");
+      sb.append("      <logs>%(user.home)/terracotta/server-").append(i).append("/logs</logs>\n");
+      sb.append("      <tsa-port>").append(port).append("</tsa-port>\n");
+      sb.append("      <tsa-group-port>").append(port + 20).append("</tsa-group-port>\n");
+      sb.append("    </server>\n");
+    }
+    sb.append("  </servers>\n");
+    sb.append("</tc-config>\n");
+    return sb.toString();
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.config.TCConfigurationParser;
+import org.terracotta.config.TcConfig;
+import org.terracotta.config.util.DefaultSubstitutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of walking a bound configuration tree with {@link DefaultSubstitutor#applyDefaults(Object)}.
+ * <p>
+ * The {@code client-reconnect-window} default is cleared before every walk so each invocation has a default to apply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefaultSubstitutorBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public ConfigSize size;
+
+  private TcConfig tcConfig;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    tcConfig = TCConfigurationParser.parse(size.generate()).getPlatformConfiguration();
+  }
+
+  @Benchmark
+  public TcConfig applyDefaults() {
+    tcConfig.getServers().setClientReconnectWindow(null);
+    DefaultSubstitutor.applyDefaults(tcConfig);
+    return tcConfig;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.config.ParseOptions;
+import org.terracotta.config.TCConfigurationParser;
+import org.terracotta.config.TcConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state throughput of the public {@link TCConfigurationParser} entry points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public ConfigSize size;
+
+  @Param({"false", "true"})
+  public boolean streaming;
+
+  private ClassLoader loader;
+  private ParseOptions options;
+  private String xml;
+  private byte[] bytes;
+  private File file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    loader = Thread.currentThread().getContextClassLoader();
+    options = ParseOptions.defaults().withStreaming(streaming);
+    xml = size.generate();
+    bytes = xml.getBytes(StandardCharsets.UTF_8);
+    file = File.createTempFile("tc-config-" + size.name().toLowerCase(), ".xml");
+    Files.write(file.toPath(), bytes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  @Benchmark
+  public TcConfiguration parseFile() throws Exception {
+    return TCConfigurationParser.parse(file, loader, options);
+  }
+
+  @Benchmark
+  public TcConfiguration parsePath() throws Exception {
+    return TCConfigurationParser.parse(file.toPath(), loader, options);
+  }
+
+  @Benchmark
+  public TcConfiguration parseString() throws Exception {
+    return TCConfigurationParser.parse(xml, loader, options);
+  }
+
+  @Benchmark
+  public TcConfiguration parseInputStream() throws Exception {
+    return TCConfigurationParser.parse(new ByteArrayInputStream(bytes), loader, options);
+  }
+}
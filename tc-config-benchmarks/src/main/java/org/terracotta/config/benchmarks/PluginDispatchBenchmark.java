@@ -0,0 +1,82 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.terracotta.config.Service;
+import org.terracotta.config.TCConfigurationParser;
+import org.terracotta.config.TcConfig;
+import org.terracotta.config.service.ServiceConfigParser;
+import org.w3c.dom.Element;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dispatching the {@code <plugins>} fragments of a bound configuration to their {@link ServiceConfigParser}s,
+ * the same way {@link TCConfigurationParser} does after binding the platform configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginDispatchBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public ConfigSize size;
+
+  private final Map<URI, ServiceConfigParser> parsers = new HashMap<>();
+  private final List<Element> fragments = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    for (ServiceConfigParser parser : ServiceLoader.load(ServiceConfigParser.class)) {
+      parsers.put(parser.getNamespace(), parser);
+    }
+    TcConfig tcConfig = TCConfigurationParser.parse(size.generate()).getPlatformConfiguration();
+    for (Object plugin : tcConfig.getPlugins().getConfigOrService()) {
+      fragments.add(((Service) plugin).getServiceContent());
+    }
+  }
+
+  @Benchmark
+  public void dispatch(Blackhole blackhole) {
+    for (Element fragment : fragments) {
+      ServiceConfigParser parser = parsers.get(URI.create(fragment.getNamespaceURI()));
+      blackhole.consume(parser.parse(fragment, null));
+    }
+  }
+}
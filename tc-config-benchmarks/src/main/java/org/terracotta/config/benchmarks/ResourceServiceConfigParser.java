@@ -0,0 +1,88 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.benchmarks;
+
+import org.terracotta.config.service.ServiceConfigParser;
+import org.terracotta.entity.ServiceProvider;
+import org.terracotta.entity.ServiceProviderConfiguration;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A lightweight plugin parser used to exercise plugin-fragment dispatch without measuring a plugin's own
+ * JAXB binding.
+ */
+public class ResourceServiceConfigParser implements ServiceConfigParser {
+
+  static final URI NAMESPACE = URI.create("http://www.terracotta.org/config/benchmark");
+  private static final URL XML_SCHEMA = ResourceServiceConfigParser.class.getResource("/benchmark.xsd");
+
+  public static final class ResourceConfiguration implements ServiceProviderConfiguration {
+
+    private final String name;
+    private final Map<String, String> settings;
+
+    ResourceConfiguration(String name, Map<String, String> settings) {
+      this.name = name;
+      this.settings = Collections.unmodifiableMap(settings);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Map<String, String> getSettings() {
+      return settings;
+    }
+
+    @Override
+    public Class<? extends ServiceProvider> getServiceProviderType() {
+      return ServiceProvider.class;
+    }
+  }
+
+  @Override
+  public Source getXmlSchema() throws IOException {
+    return new StreamSource(XML_SCHEMA.openStream());
+  }
+
+  @Override
+  public URI getNamespace() {
+    return NAMESPACE;
+  }
+
+  @Override
+  public ServiceProviderConfiguration parse(Element fragment, String source) {
+    Map<String, String> settings = new LinkedHashMap<>();
+    for (Node child = fragment.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof Element) {
+        Element setting = (Element) child;
+        settings.put(setting.getAttribute("key"), setting.getAttribute("value"));
+      }
+    }
+    return new ResourceConfiguration(fragment.getAttribute("name"), settings);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.jfr;
+
+import jdk.jfr.FlightRecorder;
+import org.terracotta.config.ParsePhase;
+import org.terracotta.config.events.ConfigEventSink;
+
+/**
+ * Emits the Flight Recorder events of configuration loading:
+ * <ul>
+ *   <li>{@code org.terracotta.config.Parse}: a whole parse, with its source and document size,</li>
+ *   <li>{@code org.terracotta.config.Phase}: each phase of a parse, such as schema compilation or the application of
+ *       defaults,</li>
+ *   <li>{@code org.terracotta.config.PluginParse}: the parsing of each plugin fragment, with its namespace and
+ *       parser class,</li>
+ *   <li>{@code org.terracotta.config.HostResolution}: each lookup of the local host identity, which runs in the
+ *       background while the document is parsed.</li>
+ * </ul>
+ * Events carry their thread and start time, so a stall during startup can be lined up with the GC, safepoint and
+ * file or socket I/O events of the same recording. Events are disabled by default; enable them by name in the
+ * recording settings, or with {@code jfr configure}.
+ * <p>
+ * The parser finds this sink through {@link java.util.ServiceLoader} when this module is on its class path, unless the
+ * JVM has no Flight Recorder, in which case the sink cannot be created and the parser runs without one. While no
+ * recording enables an event, its {@code begin} method returns {@code null} and the parser skips the matching
+ * {@code commit}.
+ */
+public final class FlightRecorderEventSink implements ConfigEventSink {
+
+  public FlightRecorderEventSink() {
+    if (!FlightRecorder.isAvailable()) {
+      throw new IllegalStateException("Flight Recorder is not available");
+    }
+  }
+
+  @Override
+  public Object beginParse() {
+    ConfigParseEvent event = new ConfigParseEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void commitParse(Object begun, String source, long bytes) {
+    ConfigParseEvent event = (ConfigParseEvent) begun;
+    event.end();
+    if (event.shouldCommit()) {
+      event.source = source;
+      event.bytes = bytes;
+      event.commit();
+    }
+  }
+
+  @Override
+  public Object beginPhase(ParsePhase phase) {
+    if (phase == ParsePhase.PLUGIN) {
+      PluginParseEvent event = new PluginParseEvent();
+      if (!event.isEnabled()) {
+        return null;
+      }
+      event.begin();
+      return event;
+    } else {
+      ConfigPhaseEvent event = new ConfigPhaseEvent();
+      if (!event.isEnabled()) {
+        return null;
+      }
+      event.begin();
+      return event;
+    }
+  }
+
+  @Override
+  public void commitPhase(Object begun, String source, ParsePhase phase, String namespace, Class<?> parser, long bytes) {
+    if (begun instanceof PluginParseEvent) {
+      PluginParseEvent event = (PluginParseEvent) begun;
+      event.end();
+      if (event.shouldCommit()) {
+        event.source = source;
+        event.namespace = namespace;
+        event.parser = parser;
+        event.commit();
+      }
+    } else {
+      ConfigPhaseEvent event = (ConfigPhaseEvent) begun;
+      event.end();
+      if (event.shouldCommit()) {
+        event.source = source;
+        event.phase = phase.name();
+        event.bytes = bytes;
+        event.commit();
+      }
+    }
+  }
+
+  @Override
+  public Object beginHostResolution() {
+    HostResolutionEvent event = new HostResolutionEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void commitHostResolution(Object begun, String lookup, String value) {
+    HostResolutionEvent event = (HostResolutionEvent) begun;
+    event.end();
+    if (event.shouldCommit()) {
+      event.lookup = lookup;
+      event.value = value;
+      event.succeeded = value != null;
+      event.commit();
+    }
+  }
+}
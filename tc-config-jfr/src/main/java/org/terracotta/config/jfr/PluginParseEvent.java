@@ -0,0 +1,43 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.terracotta.config.PluginParse")
+@Label("Configuration Plugin Parse")
+@Category({"Terracotta", "Configuration"})
+@Description("Parsing of one plugin fragment of a configuration document by its parser")
+@Enabled(false)
+@StackTrace(false)
+class PluginParseEvent extends Event {
+
+  @Label("Source")
+  String source;
+
+  @Label("Namespace")
+  String namespace;
+
+  @Label("Parser")
+  Class<?> parser;
+}
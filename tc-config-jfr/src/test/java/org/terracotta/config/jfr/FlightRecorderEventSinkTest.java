@@ -0,0 +1,149 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.terracotta.config.ParseListener;
+import org.terracotta.config.ParsePhase;
+import org.terracotta.config.TCConfigurationParser;
+import org.terracotta.config.events.ConfigEvents;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class FlightRecorderEventSinkTest {
+
+  @Test
+  public void testEventsAreDisabledByDefault() throws Exception {
+    FlightRecorderEventSink sink = new FlightRecorderEventSink();
+    try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+      recording.start();
+      assertThat(sink.beginParse(), nullValue());
+      assertThat(sink.beginPhase(ParsePhase.DEFAULTS), nullValue());
+      assertThat(sink.beginPhase(ParsePhase.PLUGIN), nullValue());
+      assertThat(sink.beginHostResolution(), nullValue());
+    }
+  }
+
+  @Test
+  public void testParseEmitsEvents() throws Exception {
+    assertThat(ConfigEvents.AVAILABLE, is(true));
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-config.xml");
+    Path file = Files.createTempFile("tc-config", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("org.terracotta.config.Parse");
+        recording.enable("org.terracotta.config.Phase");
+        recording.enable("org.terracotta.config.PluginParse");
+        recording.start();
+        TCConfigurationParser.parse(resource);
+
+        // the document has no plugin fragment
+        FlightRecorderEventSink sink = new FlightRecorderEventSink();
+        sink.commitPhase(sink.beginPhase(ParsePhase.PLUGIN), "plugin", ParsePhase.PLUGIN, "http://www.example.com/foo", Object.class, -1);
+        recording.stop();
+        recording.dump(file);
+      }
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      Set<String> names = new HashSet<>();
+      Set<String> phases = new HashSet<>();
+      for (RecordedEvent event : events) {
+        String name = event.getEventType().getName();
+        names.add(name);
+        if (name.equals("org.terracotta.config.Phase")) {
+          phases.add(event.getString("phase"));
+        } else if (name.equals("org.terracotta.config.Parse")) {
+          assertEquals(resource.getPath(), event.getString("source"));
+          assertThat(event.getStackTrace(), nullValue());
+        } else if (name.equals("org.terracotta.config.PluginParse")) {
+          assertEquals("http://www.example.com/foo", event.getString("namespace"));
+        }
+      }
+      assertThat(names, hasItems("org.terracotta.config.Parse", "org.terracotta.config.Phase", "org.terracotta.config.PluginParse"));
+      assertThat(phases, hasItems("SCHEMA", "PARSE", "DEFAULTS", "SUBSTITUTION"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testFlightRecorderIsOptional() throws Exception {
+    URL parser = ConfigEvents.class.getProtectionDomain().getCodeSource().getLocation();
+    URL sink = FlightRecorderEventSink.class.getProtectionDomain().getCodeSource().getLocation();
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { parser, sink }, new WithoutFlightRecorder(getClass().getClassLoader()))) {
+      Class<?> events = Class.forName(ConfigEvents.class.getName(), true, loader);
+      assertThat(events.getField("AVAILABLE").get(null), is(false));
+
+      // a parse records its phases without touching any Flight Recorder class
+      Class<?> recorderType = Class.forName("org.terracotta.config.ParseRecorder", true, loader);
+      Class<?> phaseType = loader.loadClass(ParsePhase.class.getName());
+      Class<?> markType = loader.loadClass("org.terracotta.config.ParseRecorder$Mark");
+      Constructor<?> constructor = recorderType.getDeclaredConstructor(String.class, loader.loadClass(ParseListener.class.getName()));
+      Method start = recorderType.getDeclaredMethod("start", phaseType);
+      Method record = recorderType.getDeclaredMethod("record", markType);
+      Method completed = recorderType.getDeclaredMethod("completed");
+      Method stats = recorderType.getDeclaredMethod("stats");
+      for (Method method : new Method[] { start, record, completed, stats }) {
+        method.setAccessible(true);
+      }
+      constructor.setAccessible(true);
+
+      Object recorder = constructor.newInstance("test", null);
+      record.invoke(recorder, start.invoke(recorder, phaseType.getEnumConstants()[ParsePhase.DEFAULTS.ordinal()]));
+      completed.invoke(recorder);
+      Object parseStats = stats.invoke(recorder);
+      assertEquals(1, ((List<?>) parseStats.getClass().getMethod("getTimings").invoke(parseStats)).size());
+    }
+  }
+
+  /**
+   * Hides Flight Recorder, as on a JVM without it, and the classes of the parser and of this module, so that they are
+   * loaded again against that view.
+   */
+  private static final class WithoutFlightRecorder extends ClassLoader {
+
+    WithoutFlightRecorder(ClassLoader parent) {
+      super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (name.startsWith("jdk.jfr.") || name.startsWith("org.terracotta.config.")) {
+        throw new ClassNotFoundException(name);
+      }
+      return super.loadClass(name, resolve);
+    }
+  }
+}
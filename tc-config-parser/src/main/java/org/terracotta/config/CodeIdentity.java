@@ -0,0 +1,128 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Identifies the code a class was loaded from, so that state persisted across processes, such as snapshots in the
+ * on-disk parse cache, can tell when that code changed.
+ * <p>
+ * The identity is made of the implementation version found in the jar manifest, if any, and a SHA-256 digest of the
+ * jar the class was loaded from, or of the class file itself when it was not loaded from a jar. Digesting is done at
+ * most once per class. Code that cannot be identified gets an identity unique to this process, so that nothing
+ * persisted with it is ever reused.
+ */
+final class CodeIdentity {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CodeIdentity.class);
+
+  private static final ClassValue<String> IDENTITIES = new ClassValue<String>() {
+    @Override
+    protected String computeValue(Class<?> type) {
+      return compute(type);
+    }
+  };
+
+  private CodeIdentity() {
+    //
+  }
+
+  static String of(Class<?> type) {
+    return IDENTITIES.get(type);
+  }
+
+  /**
+   * The SHA-256 digest of a resource, in hex.
+   */
+  static String digest(URL resource) throws IOException {
+    MessageDigest digest = sha256();
+    try (InputStream in = resource.openStream()) {
+      update(digest, in);
+    }
+    return hex(digest.digest());
+  }
+
+  static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  private static String compute(Class<?> type) {
+    Package pkg = type.getPackage();
+    String version = pkg == null ? null : pkg.getImplementationVersion();
+    MessageDigest digest = sha256();
+    digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+    try {
+      CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+      URL location = codeSource == null ? null : codeSource.getLocation();
+      Path jar = location != null && "file".equals(location.getProtocol()) ? Paths.get(location.toURI()) : null;
+      if (jar != null && Files.isRegularFile(jar)) {
+        try (InputStream in = Files.newInputStream(jar)) {
+          update(digest, in);
+        }
+      } else {
+        URL classFile = type.getResource('/' + type.getName().replace('.', '/') + ".class");
+        if (classFile == null) {
+          throw new IOException("Class file of " + type.getName() + " not found");
+        }
+        try (InputStream in = classFile.openStream()) {
+          update(digest, in);
+        }
+      }
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      LOGGER.debug("Could not identify the code of {}: {}", type.getName(), e.toString());
+      digest.update(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+    String hex = hex(digest.digest());
+    return version == null ? hex : version + '@' + hex;
+  }
+
+  private static void update(MessageDigest digest, InputStream in) throws IOException {
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      digest.update(buffer, 0, read);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import java.util.Objects;
+
+/**
+ * One difference between two configurations, as reported by {@link ConfigDiff}.
+ * <p>
+ * The values are the parts of the configurations that differ: a {@link Server}, a {@link Property}, a
+ * {@link FailoverPriority}, the client reconnect window as an {@link Integer}, or for plugins the list of
+ * {@link org.w3c.dom.Element} fragments of the namespace. The old value is {@code null} for additions and the new value
+ * is {@code null} for removals.
+ */
+public final class ConfigChange {
+
+  public enum Section {
+    SERVER,
+    CLIENT_RECONNECT_WINDOW,
+    PROPERTY,
+    FAILOVER_PRIORITY,
+    PLUGIN
+  }
+
+  public enum Kind {
+    ADDED,
+    REMOVED,
+    MODIFIED
+  }
+
+  private final Section section;
+  private final Kind kind;
+  private final String key;
+  private final Object oldValue;
+  private final Object newValue;
+
+  ConfigChange(Section section, Kind kind, String key, Object oldValue, Object newValue) {
+    this.section = section;
+    this.kind = kind;
+    this.key = key;
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  public Section getSection() {
+    return section;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * The server name, property name or plugin namespace the change applies to, or {@code null} for sections that
+   * occur at most once.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  public Object getOldValue() {
+    return oldValue;
+  }
+
+  public Object getNewValue() {
+    return newValue;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ConfigChange that = (ConfigChange) o;
+    return section == that.section && kind == that.kind && Objects.equals(key, that.key)
+           && Objects.equals(oldValue, that.oldValue) && Objects.equals(newValue, that.newValue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(section, kind, key, oldValue, newValue);
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + section + (key == null ? "" : " " + key);
+  }
+}
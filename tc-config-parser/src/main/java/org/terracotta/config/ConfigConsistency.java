@@ -0,0 +1,205 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.ConfigChange.Section;
+import org.terracotta.config.service.ConfigValidator;
+import org.terracotta.config.service.ValidationException;
+import org.w3c.dom.Element;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that the configurations of the members of a cluster agree, without comparing every pair of members.
+ * <p>
+ * Members are grouped by a fingerprint of each section: the servers (with the client reconnect window), the
+ * tc-properties, the failover priority, and the fragments of each plugin namespace. Fingerprints do not depend on the
+ * order of servers or properties, server attributes that refer to the local host identity ({@code %h},
+ * {@code %c}, {@code %i}) are fingerprinted as written rather than as resolved on each member, and relative logs
+ * directories as written rather than against each member's configuration file. Members in the same group
+ * agree on that section. For the platform sections, distinct groups disagree. For a plugin namespace, the namespace's
+ * {@link ConfigValidator} judges each pair of distinct groups with
+ * {@link ConfigValidator#validateAgainst(Element, Element)} on one representative per group, pairing fragments by
+ * their position in the namespace, as a reload does; fragments are grouped in that order too. Checking N members
+ * therefore digests N configurations and validates only as many pairs as there are distinct variants of a section.
+ * <p>
+ * The verdicts are those of a pairwise check of all members, provided that a validator accepts identical fragments and
+ * judges fragments only by their content. As when reloading a configuration, namespaces that no parser handles are
+ * not checked. A namespace with a different number of fragments on two members is a disagreement.
+ */
+public final class ConfigConsistency {
+
+  private ConfigConsistency() {
+    //
+  }
+
+  public static <K> List<Disagreement<K>> check(Map<K, TcConfiguration> members) {
+    return check(members, Thread.currentThread().getContextClassLoader());
+  }
+
+  /**
+   * @param members the configuration of each member, by member identity
+   * @param loader the class loader plugin validators are looked up through
+   * @return one disagreement per section and pair of groups of members that disagree on it, empty if all agree
+   */
+  public static <K> List<Disagreement<K>> check(Map<K, TcConfiguration> members, ClassLoader loader) {
+    Map<ByteBuffer, Set<K>> servers = new LinkedHashMap<>();
+    Map<ByteBuffer, Set<K>> properties = new LinkedHashMap<>();
+    Map<ByteBuffer, Set<K>> failoverPriorities = new LinkedHashMap<>();
+    Set<String> namespaces = new LinkedHashSet<>();
+    for (Map.Entry<K, TcConfiguration> member : members.entrySet()) {
+      ConfigDigests digests = member.getValue().getDigests();
+      group(servers, digests.serversFingerprint(), member.getKey());
+      group(properties, digests.properties.unorderedDigest(), member.getKey());
+      group(failoverPriorities, digests.failoverPriority, member.getKey());
+      namespaces.addAll(digests.fragments.keySet());
+    }
+
+    List<Disagreement<K>> disagreements = new ArrayList<>();
+    compare(Section.SERVER, servers, disagreements);
+    compare(Section.PROPERTY, properties, disagreements);
+    compare(Section.FAILOVER_PRIORITY, failoverPriorities, disagreements);
+    for (String namespace : namespaces) {
+      ConfigValidator validator = TCConfigurationParser.getValidator(URI.create(namespace), loader);
+      if (validator != null) {
+        compare(namespace, validator, groupFragments(namespace, members), disagreements);
+      }
+    }
+    return Collections.unmodifiableList(disagreements);
+  }
+
+  private static <K> void group(Map<ByteBuffer, Set<K>> groups, byte[] fingerprint, K member) {
+    groups.computeIfAbsent(ByteBuffer.wrap(fingerprint), f -> new LinkedHashSet<>()).add(member);
+  }
+
+  private static <K> void compare(Section section, Map<ByteBuffer, Set<K>> groups, List<Disagreement<K>> disagreements) {
+    List<Set<K>> distinct = new ArrayList<>(groups.values());
+    for (int i = 0; i < distinct.size(); i++) {
+      for (int j = i + 1; j < distinct.size(); j++) {
+        disagreements.add(new Disagreement<>(section, null, distinct.get(i), distinct.get(j), null));
+      }
+    }
+  }
+
+  private static <K> Map<ByteBuffer, FragmentGroup<K>> groupFragments(String namespace, Map<K, TcConfiguration> members) {
+    Map<ByteBuffer, FragmentGroup<K>> groups = new LinkedHashMap<>();
+    for (Map.Entry<K, TcConfiguration> member : members.entrySet()) {
+      ConfigDigests digests = member.getValue().getDigests();
+      ByteBuffer fingerprint = ByteBuffer.wrap(digests.orderedPluginDigest(namespace));
+      groups.computeIfAbsent(fingerprint, f -> new FragmentGroup<>(
+          digests.plugins.values().getOrDefault(namespace, Collections.emptyList())))
+          .members.add(member.getKey());
+    }
+    return groups;
+  }
+
+  private static <K> void compare(String namespace, ConfigValidator validator, Map<ByteBuffer, FragmentGroup<K>> groups,
+                                  List<Disagreement<K>> disagreements) {
+    List<FragmentGroup<K>> distinct = new ArrayList<>(groups.values());
+    for (int i = 0; i < distinct.size(); i++) {
+      for (int j = i + 1; j < distinct.size(); j++) {
+        FragmentGroup<K> one = distinct.get(i);
+        FragmentGroup<K> other = distinct.get(j);
+        if (one.fragments.size() != other.fragments.size()) {
+          disagreements.add(new Disagreement<>(Section.PLUGIN, namespace, one.members, other.members, null));
+          continue;
+        }
+        try {
+          for (int k = 0; k < one.fragments.size(); k++) {
+            validator.validateAgainst(one.fragments.get(k), other.fragments.get(k));
+          }
+        } catch (ValidationException e) {
+          disagreements.add(new Disagreement<>(Section.PLUGIN, namespace, one.members, other.members, e));
+        }
+      }
+    }
+  }
+
+  private static final class FragmentGroup<K> {
+
+    private final List<Element> fragments;
+    private final Set<K> members = new LinkedHashSet<>();
+
+    FragmentGroup(List<Element> fragments) {
+      this.fragments = fragments;
+    }
+  }
+
+  /**
+   * Two groups of members whose configurations disagree on a section. Each member is in exactly one group per section.
+   */
+  public static final class Disagreement<K> {
+
+    private final Section section;
+    private final String namespace;
+    private final Set<K> members;
+    private final Set<K> otherMembers;
+    private final ValidationException cause;
+
+    Disagreement(Section section, String namespace, Set<K> members, Set<K> otherMembers, ValidationException cause) {
+      this.section = section;
+      this.namespace = namespace;
+      this.members = Collections.unmodifiableSet(members);
+      this.otherMembers = Collections.unmodifiableSet(otherMembers);
+      this.cause = cause;
+    }
+
+    /**
+     * {@link Section#SERVER} (which covers the client reconnect window), {@link Section#PROPERTY},
+     * {@link Section#FAILOVER_PRIORITY} or {@link Section#PLUGIN}.
+     */
+    public Section getSection() {
+      return section;
+    }
+
+    /**
+     * The plugin namespace, for plugin disagreements.
+     */
+    public String getNamespace() {
+      return namespace;
+    }
+
+    public Set<K> getMembers() {
+      return members;
+    }
+
+    public Set<K> getOtherMembers() {
+      return otherMembers;
+    }
+
+    /**
+     * Why the plugin validator rejected the pair, or {@code null} if the sections simply differ.
+     */
+    public ValidationException getCause() {
+      return cause;
+    }
+
+    @Override
+    public String toString() {
+      return section + (namespace == null ? "" : " " + namespace) + ": " + members + " <> " + otherMembers
+             + (cause == null ? "" : " (" + cause.getMessage() + ")");
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.ConfigChange.Kind;
+import org.terracotta.config.ConfigChange.Section;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the differences between two parsed configurations.
+ * <p>
+ * Servers are matched by name, tc-properties by name and plugins by namespace; the failover priority and client
+ * reconnect window are compared as a whole. A tc-property set more than once, or a server name used more than once,
+ * is compared by its last entry. Comparison works on digests that each {@link TcConfiguration} computes once, so
+ * sections that did not change are skipped without walking them. Reordering servers, properties or plugin
+ * namespaces is not reported as a change, except that reordering the fragments within one plugin namespace is.
+ */
+public final class ConfigDiff {
+
+  private ConfigDiff() {
+    //
+  }
+
+  /**
+   * @return the changes needed to go from the old configuration to the new one, grouped by section
+   */
+  public static List<ConfigChange> between(TcConfiguration oldConfiguration, TcConfiguration newConfiguration) {
+    ConfigDigests before = oldConfiguration.getDigests();
+    ConfigDigests after = newConfiguration.getDigests();
+    if (before == after) {
+      return Collections.emptyList();
+    }
+
+    List<ConfigChange> changes = new ArrayList<>();
+    compare(Section.SERVER, before.servers, after.servers, changes);
+    if (!Arrays.equals(before.clientReconnectWindow, after.clientReconnectWindow)) {
+      changes.add(new ConfigChange(Section.CLIENT_RECONNECT_WINDOW, Kind.MODIFIED, null,
+                                   clientReconnectWindow(oldConfiguration), clientReconnectWindow(newConfiguration)));
+    }
+    compare(Section.PROPERTY, before.properties, after.properties, changes);
+    if (!Arrays.equals(before.failoverPriority, after.failoverPriority)) {
+      FailoverPriority oldPriority = oldConfiguration.getPlatformConfiguration().getFailoverPriority();
+      FailoverPriority newPriority = newConfiguration.getPlatformConfiguration().getFailoverPriority();
+      Kind kind = oldPriority == null ? Kind.ADDED : newPriority == null ? Kind.REMOVED : Kind.MODIFIED;
+      changes.add(new ConfigChange(Section.FAILOVER_PRIORITY, kind, null, oldPriority, newPriority));
+    }
+    compare(Section.PLUGIN, before.plugins, after.plugins, changes);
+    return changes;
+  }
+
+  private static <T> void compare(Section section, ConfigDigests.Section<T> before, ConfigDigests.Section<T> after,
+                                  List<ConfigChange> changes) {
+    if (before.sameAs(after)) {
+      return;
+    }
+    Map<String, T> oldValues = before.values();
+    Map<String, T> newValues = after.values();
+    for (Map.Entry<String, T> entry : oldValues.entrySet()) {
+      String key = entry.getKey();
+      if (!newValues.containsKey(key)) {
+        changes.add(new ConfigChange(section, Kind.REMOVED, key, entry.getValue(), null));
+      } else if (!Arrays.equals(before.digest(key), after.digest(key))) {
+        changes.add(new ConfigChange(section, Kind.MODIFIED, key, entry.getValue(), newValues.get(key)));
+      }
+    }
+    for (Map.Entry<String, T> entry : newValues.entrySet()) {
+      if (!oldValues.containsKey(entry.getKey())) {
+        changes.add(new ConfigChange(section, Kind.ADDED, entry.getKey(), null, entry.getValue()));
+      }
+    }
+  }
+
+  private static Integer clientReconnectWindow(TcConfiguration configuration) {
+    Servers servers = configuration.getPlatformConfiguration().getServers();
+    return servers == null ? null : servers.getClientReconnectWindow();
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.util.CanonicalDigest;
+import org.w3c.dom.Element;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Digests of the sections of a parsed platform configuration, and of their keyed entries. Computed once per
+ * {@link TcConfiguration}, on first use; the configuration must not be modified afterwards.
+ */
+final class ConfigDigests {
+
+  /**
+   * Names of the server attributes recorded in {@linkplain TcConfiguration#getHostTemplates() host templates}.
+   */
+  static final String NAME = "name";
+  static final String HOST = "host";
+  static final String BIND = "bind";
+  static final String LOGS = "logs";
+  static final String TSA_PORT_BIND = "tsa-port-bind";
+  static final String TSA_GROUP_PORT_BIND = "tsa-group-port-bind";
+
+  final Section<Server> servers = new Section<>();
+  /**
+   * The digest of each server keyed by its name, with the attributes that refer to the local host identity as
+   * written rather than as resolved, and a relative logs directory before it was made absolute, in document order.
+   */
+  private final List<ByteBuffer> portableServers = new ArrayList<>();
+  final Section<Property> properties = new Section<>();
+  final Section<List<Element>> plugins = new Section<>();
+  /**
+   * The digest of each plugin fragment, by namespace and in document order.
+   */
+  final Map<String, List<byte[]>> fragments = new LinkedHashMap<>();
+  final byte[] clientReconnectWindow;
+  final byte[] failoverPriority;
+
+  private byte[] fingerprint;
+
+  /**
+   * @param pluginFragments the resolved plugin fragments, whose parsers digest them, or {@code null} to digest every
+   *                        fragment canonically
+   * @param hostTemplates the {@linkplain TcConfiguration#getHostTemplates() host templates} of the servers
+   */
+  ConfigDigests(TcConfig tcConfig, List<PluginFragment> pluginFragments, List<Map<String, String>> hostTemplates) {
+    Map<Element, PluginFragment> fragmentsByElement = new IdentityHashMap<>();
+    if (pluginFragments != null) {
+      for (PluginFragment fragment : pluginFragments) {
+        fragmentsByElement.put(fragment.getElement(), fragment);
+      }
+    }
+
+    Servers servers = tcConfig.getServers();
+    if (servers != null) {
+      List<Server> list = servers.getServer();
+      for (int i = 0; i < list.size(); i++) {
+        Server server = list.get(i);
+        byte[] serverDigest = digest(server, Collections.emptyMap());
+        this.servers.put(server.getName(), server, serverDigest);
+
+        Map<String, String> templates = i < hostTemplates.size() ? hostTemplates.get(i) : Collections.emptyMap();
+        byte[] portable = templates.isEmpty() ? serverDigest : digest(server, templates);
+        portableServers.add(ByteBuffer.wrap(new CanonicalDigest().add(templates.getOrDefault(NAME, server.getName())).add(portable).digest()));
+      }
+    }
+    this.servers.seal();
+
+    TcProperties tcProperties = tcConfig.getTcProperties();
+    if (tcProperties != null) {
+      for (Property property : tcProperties.getProperty()) {
+        this.properties.put(property.getName(), property, new CanonicalDigest().add(property.getName()).add(property.getValue()).digest());
+      }
+    }
+    this.properties.seal();
+
+    Map<String, List<Element>> fragments = new LinkedHashMap<>();
+    if (tcConfig.getPlugins() != null && tcConfig.getPlugins().getConfigOrService() != null) {
+      for (Object plugin : tcConfig.getPlugins().getConfigOrService()) {
+        Element element = plugin instanceof Service ? ((Service) plugin).getServiceContent() : ((Config) plugin).configContent;
+        fragments.computeIfAbsent(URI.create(element.getNamespaceURI()).toString(), ns -> new ArrayList<>()).add(element);
+      }
+    }
+    for (Map.Entry<String, List<Element>> entry : fragments.entrySet()) {
+      CanonicalDigest digest = new CanonicalDigest();
+      List<byte[]> elementDigests = new ArrayList<>();
+      for (Element element : entry.getValue()) {
+        PluginFragment fragment = fragmentsByElement.get(element);
+        byte[] elementDigest = fragment == null ? null : fragment.fingerprint();
+        if (elementDigest == null) {
+          elementDigest = CanonicalDigest.of(element);
+        }
+        digest.add(elementDigest);
+        elementDigests.add(elementDigest);
+      }
+      this.plugins.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()), digest.digest());
+      this.fragments.put(entry.getKey(), Collections.unmodifiableList(elementDigests));
+    }
+    this.plugins.seal();
+
+    this.clientReconnectWindow = new CanonicalDigest().add(servers == null ? null : servers.getClientReconnectWindow()).digest();
+    this.failoverPriority = digest(tcConfig.getFailoverPriority());
+  }
+
+  /**
+   * Digest of the servers section, including the client reconnect window, irrespective of server order. Attributes
+   * that refer to the local host identity are digested as written, and a relative logs directory before it is made
+   * absolute, so that members on different hosts, or loading their configuration from different directories, agree.
+   */
+  byte[] serversFingerprint() {
+    return new CanonicalDigest().add(unorderedDigest(portableServers)).add(clientReconnectWindow).digest();
+  }
+
+  /**
+   * Digest of the fragments of a plugin namespace irrespective of their order; an absent namespace has the digest of
+   * no fragments.
+   */
+  byte[] pluginFingerprint(String namespace) {
+    List<byte[]> digests = fragments.getOrDefault(namespace, Collections.emptyList());
+    List<ByteBuffer> entries = new ArrayList<>(digests.size());
+    for (byte[] digest : digests) {
+      entries.add(ByteBuffer.wrap(digest));
+    }
+    return unorderedDigest(entries);
+  }
+
+  /**
+   * Digest of the fragments of a plugin namespace in document order; an absent namespace has the digest of no
+   * fragments.
+   */
+  byte[] orderedPluginDigest(String namespace) {
+    byte[] digest = plugins.digest(namespace);
+    return digest == null ? new CanonicalDigest().digest() : digest;
+  }
+
+  /**
+   * Digest of the whole configuration, combining the section fingerprints; orders of servers, properties, plugin
+   * namespaces and fragments do not matter.
+   */
+  synchronized byte[] fingerprint() {
+    if (fingerprint == null) {
+      List<ByteBuffer> namespaces = new ArrayList<>(fragments.size());
+      for (String namespace : fragments.keySet()) {
+        namespaces.add(ByteBuffer.wrap(new CanonicalDigest().add(namespace).add(pluginFingerprint(namespace)).digest()));
+      }
+      fingerprint = new CanonicalDigest()
+          .add(serversFingerprint())
+          .add(properties.unorderedDigest())
+          .add(failoverPriority)
+          .add(unorderedDigest(namespaces))
+          .digest();
+    }
+    return fingerprint;
+  }
+
+  /**
+   * @param templates attribute values to digest in place of the resolved ones
+   */
+  private static byte[] digest(Server server, Map<String, String> templates) {
+    CanonicalDigest digest = new CanonicalDigest()
+        .add(templates.getOrDefault(NAME, server.getName()))
+        .add(templates.getOrDefault(HOST, server.getHost()))
+        .add(templates.getOrDefault(BIND, server.getBind()))
+        .add(templates.getOrDefault(LOGS, server.getLogs()));
+    add(digest, server.getTsaPort(), templates.get(TSA_PORT_BIND));
+    add(digest, server.getTsaGroupPort(), templates.get(TSA_GROUP_PORT_BIND));
+    return digest.digest();
+  }
+
+  private static void add(CanonicalDigest digest, BindPort port, String bindTemplate) {
+    if (port == null) {
+      digest.add((String) null);
+    } else {
+      digest.add(port.getValue()).add(bindTemplate == null ? port.getBind() : bindTemplate);
+    }
+  }
+
+  private static byte[] digest(FailoverPriority failoverPriority) {
+    CanonicalDigest digest = new CanonicalDigest();
+    if (failoverPriority == null) {
+      digest.add((String) null);
+    } else if (failoverPriority.getConsistency() != null) {
+      Voter voter = failoverPriority.getConsistency().getVoter();
+      digest.add("consistency").add(voter == null ? null : voter.getCount());
+    } else {
+      digest.add("availability");
+    }
+    return digest.digest();
+  }
+
+  /**
+   * The keyed entries of a section, with a digest over the whole section.
+   * <p>
+   * A key that appears more than once, such as a tc-property set twice or two servers sharing a name, maps to its
+   * last entry; the section digests still cover every entry, each with its position among the entries of the same
+   * key.
+   */
+  static final class Section<T> {
+
+    private final Map<String, T> values = new LinkedHashMap<>();
+    private final Map<String, byte[]> digests = new LinkedHashMap<>();
+    private final Map<String, Integer> occurrences = new HashMap<>();
+    private final List<ByteBuffer> entryDigests = new ArrayList<>();
+    private final CanonicalDigest sectionDigest = new CanonicalDigest();
+    private byte[] digest;
+    private byte[] unorderedDigest;
+
+    private void put(String key, T value, byte[] entryDigest) {
+      int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+      values.put(key, value);
+      digests.put(key, entryDigest);
+      entryDigests.add(ByteBuffer.wrap(new CanonicalDigest().add(key).add(occurrence).add(entryDigest).digest()));
+      sectionDigest.add(key).add(entryDigest);
+    }
+
+    private void seal() {
+      digest = sectionDigest.digest();
+    }
+
+    boolean sameAs(Section<?> other) {
+      return Arrays.equals(digest, other.digest);
+    }
+
+    Map<String, T> values() {
+      return values;
+    }
+
+    byte[] digest(String key) {
+      return digests.get(key);
+    }
+
+    byte[] digest() {
+      return digest;
+    }
+
+    /**
+     * A digest over the section's entries that does not depend on the order of distinct keys, but does depend on the
+     * order of the entries sharing a key.
+     */
+    synchronized byte[] unorderedDigest() {
+      if (unorderedDigest == null) {
+        unorderedDigest = ConfigDigests.unorderedDigest(entryDigests);
+      }
+      return unorderedDigest;
+    }
+  }
+
+  /**
+   * Digests a collection of digests irrespective of their order.
+   */
+  static byte[] unorderedDigest(List<ByteBuffer> digests) {
+    List<ByteBuffer> sorted = new ArrayList<>(digests);
+    Collections.sort(sorted);
+    CanonicalDigest digest = new CanonicalDigest();
+    for (ByteBuffer entry : sorted) {
+      digest.add(entry.array());
+    }
+    return digest.digest();
+  }
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.config.service.ConfigurationCodec;
+import org.terracotta.config.util.CanonicalDigest;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * A compact binary encoding of a parsed {@link TcConfiguration}, which can be loaded without validating and binding
+ * the XML again.
+ * <p>
+ * A snapshot holds the platform configuration with all defaults and substitutions applied, along with the server
+ * attributes that referred to the local host identity as written, the XML of every plugin fragment, and the parsed
+ * result of the fragments whose parser is a {@link ConfigurationCodec}. Other fragments are parsed again by their
+ * parser on load, which still skips schema validation of the document. A snapshot also records a checksum of the source
+ * XML, the identity of this library and of the platform schema, the identity of the plugin schema set the source was
+ * validated against, and a digest of each substitution parameter that was resolved, unless one of them was not
+ * {@linkplain org.terracotta.config.util.TokenResolver#isDeterministic() deterministic}. Loading a snapshot whose
+ * checksum, library or schemas do not match fails with a {@link StaleSnapshotException}.
+ * <p>
+ * Parameter values are never written, only digests of them: they can come from environment variables or files and
+ * hold secrets.
+ */
+public final class ConfigSnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+  private static final int MAGIC = 0x54434353; // "TCCS"
+  public static final int VERSION = 4;
+
+  private static final byte SERVICE = 'S';
+  private static final byte CONFIG = 'C';
+
+  private static volatile String platformKey;
+
+  private ConfigSnapshot() {
+    //
+  }
+
+  /**
+   * The identity of this library and of the platform schema. Snapshots taken with either being different are stale.
+   * If the schema is missing or cannot be read, the identity is unique to this process, as for {@link CodeIdentity}.
+   */
+  static String platformKey() {
+    String key = platformKey;
+    if (key == null) {
+      key = CodeIdentity.of(TCConfigurationParser.class) + "|" + schemaIdentity();
+      platformKey = key;
+    }
+    return key;
+  }
+
+  private static String schemaIdentity() {
+    URL schema = TCConfigurationParser.TERRACOTTA_XML_SCHEMA;
+    if (schema != null) {
+      try {
+        return CodeIdentity.digest(schema);
+      } catch (IOException e) {
+        LOGGER.debug("Could not digest the schema {}: {}", schema, e.toString());
+      }
+    }
+    return UUID.randomUUID().toString();
+  }
+
+  /**
+   * Digests each resolved substitution parameter together with its value, so that the values can be compared later
+   * without being stored.
+   */
+  static Map<String, String> digestBindings(Map<String, String> bindings) {
+    if (bindings.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> digests = new LinkedHashMap<>();
+    for (Map.Entry<String, String> binding : bindings.entrySet()) {
+      digests.put(binding.getKey(), CodeIdentity.hex(new CanonicalDigest().add(binding.getKey()).add(binding.getValue()).digest()));
+    }
+    return Collections.unmodifiableMap(digests);
+  }
+
+  /**
+   * The checksum identifying source XML in a snapshot: the SHA-256 digest of its bytes.
+   */
+  public static byte[] checksum(ByteBuffer xml) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(xml.duplicate());
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  public static byte[] checksum(byte[] xml) {
+    return checksum(ByteBuffer.wrap(xml));
+  }
+
+  /**
+   * Writes a snapshot of a configuration produced by {@link TCConfigurationParser}.
+   *
+   * @param sourceChecksum the {@linkplain #checksum(byte[]) checksum} of the XML the configuration was parsed from
+   * @throws IllegalArgumentException if the configuration was not produced by the parser
+   */
+  public static void write(TcConfiguration configuration, byte[] sourceChecksum, OutputStream out) throws IOException {
+    List<PluginFragment> fragments = configuration.getFragments();
+    if (fragments == null) {
+      throw new IllegalArgumentException("Only configurations produced by TCConfigurationParser can be snapshotted");
+    }
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeShort(sourceChecksum.length);
+    data.write(sourceChecksum);
+    writeString(data, platformKey());
+    writeString(data, configuration.getSchemaKey());
+    writeString(data, configuration.getSource());
+
+    Map<String, String> bindings = configuration.getBindingDigests();
+    if (bindings == null) {
+      data.writeInt(-1);
+    } else {
+      data.writeInt(bindings.size());
+      for (Map.Entry<String, String> binding : bindings.entrySet()) {
+        writeString(data, binding.getKey());
+        writeString(data, binding.getValue());
+      }
+    }
+
+    TcConfig tcConfig = configuration.getPlatformConfiguration();
+    writeServers(data, tcConfig.getServers(), configuration.getHostTemplates());
+    writeProperties(data, tcConfig.getTcProperties());
+    writeFailoverPriority(data, tcConfig.getFailoverPriority());
+
+    data.writeBoolean(tcConfig.getPlugins() != null);
+    data.writeInt(fragments.size());
+    Transformer transformer = newTransformer();
+    for (PluginFragment fragment : fragments) {
+      data.writeByte(fragment.isService() ? SERVICE : CONFIG);
+      writeBytes(data, serialize(transformer, fragment.getElement()));
+      if (fragment.getParser() instanceof ConfigurationCodec) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream payloadData = new DataOutputStream(payload);
+        ((ConfigurationCodec) fragment.getParser()).encode(fragment.get(), payloadData);
+        payloadData.flush();
+        data.writeBoolean(true);
+        writeBytes(data, payload.toByteArray());
+      } else {
+        data.writeBoolean(false);
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * Loads a snapshot.
+   *
+   * @param expectedChecksum the checksum of the current source XML, or {@code null} to accept any
+   * @param loader the class loader plugin parsers are discovered through
+   * @throws StaleSnapshotException if the snapshot does not match the source XML, this library or the schemas
+   * @throws IOException if the snapshot cannot be read
+   */
+  public static TcConfiguration read(InputStream in, byte[] expectedChecksum, ClassLoader loader) throws IOException {
+    return read(in, expectedChecksum, loader, bindings -> true, ParseOptions.defaults(), null);
+  }
+
+  /**
+   * @param bindingsCheck tells whether the recorded {@linkplain #digestBindings(Map) substitution parameter digests}
+   *                      are still current; it is given {@code null} if they were not recorded
+   * @param options how plugin fragments are parsed: lazily, or through an executor
+   * @param recorder records the load as a {@link ParsePhase#SNAPSHOT} phase, followed by the plugin fragments parsed,
+   *                 if not {@code null}
+   */
+  static TcConfiguration read(InputStream in, byte[] expectedChecksum, ClassLoader loader,
+                              Predicate<Map<String, String>> bindingsCheck, ParseOptions options,
+                              ParseRecorder recorder) throws IOException {
+    ParseRecorder.Mark start = recorder == null ? null : recorder.start(ParsePhase.SNAPSHOT);
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a configuration snapshot");
+    }
+    int version = data.readUnsignedShort();
+    if (version != VERSION) {
+      throw new StaleSnapshotException("Unsupported snapshot version " + version);
+    }
+    byte[] checksum = new byte[data.readUnsignedShort()];
+    data.readFully(checksum);
+    if (expectedChecksum != null && !Arrays.equals(checksum, expectedChecksum)) {
+      throw new StaleSnapshotException("Snapshot does not match the configuration source");
+    }
+    if (!platformKey().equals(readString(data))) {
+      throw new StaleSnapshotException("Snapshot was taken with a different version of the parser or of the platform schema");
+    }
+    PluginParsers parsers = PluginParserRegistry.forLoader(loader);
+    String schemaKey = readString(data);
+    if (!parsers.getPersistentSchemaKey().equals(schemaKey)) {
+      throw new StaleSnapshotException("Snapshot was taken with a different set of plugin schemas");
+    }
+    String source = readString(data);
+
+    int bindingCount = data.readInt();
+    Map<String, String> bindings = null;
+    if (bindingCount >= 0) {
+      bindings = new LinkedHashMap<>();
+      for (int i = 0; i < bindingCount; i++) {
+        bindings.put(readString(data), readString(data));
+      }
+      bindings = Collections.unmodifiableMap(bindings);
+    }
+    if (!bindingsCheck.test(bindings)) {
+      throw new StaleSnapshotException("Substitution parameters have changed since the snapshot was taken");
+    }
+
+    TcConfig tcConfig = new TcConfig();
+    List<Map<String, String>> hostTemplates = new ArrayList<>();
+    tcConfig.setServers(readServers(data, hostTemplates));
+    tcConfig.setTcProperties(readProperties(data));
+    tcConfig.setFailoverPriority(readFailoverPriority(data));
+
+    boolean hasPlugins = data.readBoolean();
+    int fragmentCount = data.readInt();
+    List<byte[]> payloads = new ArrayList<>(fragmentCount);
+    if (hasPlugins) {
+      Services services = new Services();
+      DocumentBuilder builder = newDocumentBuilder();
+      for (int i = 0; i < fragmentCount; i++) {
+        byte kind = data.readByte();
+        Element element = deserialize(builder, readBytes(data));
+        if (kind == SERVICE) {
+          Service service = new Service();
+          service.setServiceContent(element);
+          services.getConfigOrService().add(service);
+        } else {
+          Config config = new Config();
+          config.configContent = element;
+          services.getConfigOrService().add(config);
+        }
+        payloads.add(data.readBoolean() ? readBytes(data) : null);
+      }
+      tcConfig.setPlugins(services);
+    }
+
+    List<PluginFragment> fragments = PluginFragment.resolve(tcConfig, parsers, source, recorder);
+    for (int i = 0; i < fragments.size(); i++) {
+      PluginFragment fragment = fragments.get(i);
+      byte[] payload = payloads.get(i);
+      if (payload != null && fragment.getParser() instanceof ConfigurationCodec) {
+        DataInputStream payloadData = new DataInputStream(new ByteArrayInputStream(payload));
+        fragment.setResult(((ConfigurationCodec) fragment.getParser()).decode(payloadData, source));
+      }
+    }
+    if (recorder != null) {
+      recorder.record(start);
+    }
+    if (!options.isLazyPlugins()) {
+      PluginFragment.parseAll(fragments, options.getPluginExecutor());
+    }
+    return new TcConfiguration(tcConfig, source, fragments, options.getPluginExecutor(), options.isLazyPlugins(),
+                               () -> schemaKey, bindings, Collections.unmodifiableList(hostTemplates), recorder);
+  }
+
+  private static void writeServers(DataOutputStream data, Servers servers, List<Map<String, String>> hostTemplates) throws IOException {
+    data.writeBoolean(servers != null);
+    if (servers == null) {
+      return;
+    }
+    writeInteger(data, servers.getClientReconnectWindow());
+    List<Server> list = servers.getServer();
+    data.writeInt(list.size());
+    for (int i = 0; i < list.size(); i++) {
+      Server server = list.get(i);
+      writeString(data, server.getName());
+      writeString(data, server.getHost());
+      writeString(data, server.getBind());
+      writeString(data, server.getLogs());
+      writeBindPort(data, server.getTsaPort());
+      writeBindPort(data, server.getTsaGroupPort());
+      Map<String, String> templates = i < hostTemplates.size() ? hostTemplates.get(i) : Collections.emptyMap();
+      data.writeInt(templates.size());
+      for (Map.Entry<String, String> template : templates.entrySet()) {
+        writeString(data, template.getKey());
+        writeString(data, template.getValue());
+      }
+    }
+  }
+
+  private static Servers readServers(DataInputStream data, List<Map<String, String>> hostTemplates) throws IOException {
+    if (!data.readBoolean()) {
+      return null;
+    }
+    Servers servers = new Servers();
+    servers.setClientReconnectWindow(readInteger(data));
+    int count = data.readInt();
+    for (int i = 0; i < count; i++) {
+      Server server = new Server();
+      server.setName(readString(data));
+      server.setHost(readString(data));
+      server.setBind(readString(data));
+      server.setLogs(readString(data));
+      server.setTsaPort(readBindPort(data));
+      server.setTsaGroupPort(readBindPort(data));
+      servers.getServer().add(server);
+      int templateCount = data.readInt();
+      Map<String, String> templates = new HashMap<>();
+      for (int j = 0; j < templateCount; j++) {
+        templates.put(readString(data), readString(data));
+      }
+      hostTemplates.add(templates.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(templates));
+    }
+    return servers;
+  }
+
+  private static void writeBindPort(DataOutputStream data, BindPort port) throws IOException {
+    data.writeBoolean(port != null);
+    if (port != null) {
+      data.writeInt(port.getValue());
+      writeString(data, port.getBind());
+    }
+  }
+
+  private static BindPort readBindPort(DataInputStream data) throws IOException {
+    if (!data.readBoolean()) {
+      return null;
+    }
+    BindPort port = new BindPort();
+    port.setValue(data.readInt());
+    port.setBind(readString(data));
+    return port;
+  }
+
+  private static void writeProperties(DataOutputStream data, TcProperties properties) throws IOException {
+    data.writeBoolean(properties != null);
+    if (properties == null) {
+      return;
+    }
+    List<Property> list = properties.getProperty();
+    data.writeInt(list.size());
+    for (Property property : list) {
+      writeString(data, property.getName());
+      writeString(data, property.getValue());
+    }
+  }
+
+  private static TcProperties readProperties(DataInputStream data) throws IOException {
+    if (!data.readBoolean()) {
+      return null;
+    }
+    TcProperties properties = new TcProperties();
+    int count = data.readInt();
+    for (int i = 0; i < count; i++) {
+      Property property = new Property();
+      property.setName(readString(data));
+      property.setValue(readString(data));
+      properties.getProperty().add(property);
+    }
+    return properties;
+  }
+
+  private static void writeFailoverPriority(DataOutputStream data, FailoverPriority priority) throws IOException {
+    if (priority == null) {
+      data.writeByte(0);
+    } else if (priority.getConsistency() != null) {
+      data.writeByte(2);
+      Voter voter = priority.getConsistency().getVoter();
+      writeInteger(data, voter == null ? null : voter.getCount());
+    } else {
+      data.writeByte(1);
+      writeString(data, priority.getAvailability());
+    }
+  }
+
+  private static FailoverPriority readFailoverPriority(DataInputStream data) throws IOException {
+    byte kind = data.readByte();
+    if (kind == 0) {
+      return null;
+    }
+    FailoverPriority priority = new FailoverPriority();
+    if (kind == 2) {
+      Consistency consistency = new Consistency();
+      Integer count = readInteger(data);
+      if (count != null) {
+        Voter voter = new Voter();
+        voter.setCount(count);
+        consistency.setVoter(voter);
+      }
+      priority.setConsistency(consistency);
+    } else {
+      priority.setAvailability(readString(data));
+    }
+    return priority;
+  }
+
+  private static void writeInteger(DataOutputStream data, Integer value) throws IOException {
+    data.writeBoolean(value != null);
+    if (value != null) {
+      data.writeInt(value);
+    }
+  }
+
+  private static Integer readInteger(DataInputStream data) throws IOException {
+    return data.readBoolean() ? data.readInt() : null;
+  }
+
+  private static void writeString(DataOutputStream data, String value) throws IOException {
+    if (value == null) {
+      data.writeInt(-1);
+    } else {
+      writeBytes(data, value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static String readString(DataInputStream data) throws IOException {
+    byte[] bytes = readBytes(data);
+    return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream data) throws IOException {
+    int length = data.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    data.readFully(bytes);
+    return bytes;
+  }
+
+  private static Transformer newTransformer() throws IOException {
+    try {
+      Transformer transformer = TransformerFactory.newInstance().newTransformer();
+      transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+      transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+      return transformer;
+    } catch (TransformerException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static byte[] serialize(Transformer transformer, Element element) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      transformer.transform(new DOMSource(element), new StreamResult(out));
+    } catch (TransformerException e) {
+      throw new IOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static DocumentBuilder newDocumentBuilder() {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    try {
+      return factory.newDocumentBuilder();
+    } catch (ParserConfigurationException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static Element deserialize(DocumentBuilder builder, byte[] xml) throws IOException {
+    try {
+      return builder.parse(new InputSource(new ByteArrayInputStream(xml))).getDocumentElement();
+    } catch (SAXException e) {
+      throw new IOException("Corrupt plugin fragment in snapshot", e);
+    }
+  }
+
+  /**
+   * Thrown when a snapshot is readable but no longer matches its source.
+   */
+  public static class StaleSnapshotException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StaleSnapshotException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.config.service.ConfigValidator;
+import org.terracotta.config.service.ValidationException;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Keeps a {@link TcConfiguration} up to date with its configuration file.
+ * <p>
+ * The file's directory is watched through a {@link WatchService} for the file being created, modified or deleted, so
+ * that replacing it by renaming another file over it is seen too. If the file is a symbolic link, the directory of
+ * its target is watched as well, and the link is resolved again after every change. Changes are debounced: the file
+ * is re-parsed once no further change has been seen for the debounce delay, so a burst of writes causes a single
+ * reload.
+ * A reloaded configuration is only published if every plugin fragment passes its {@link ConfigValidator}: fragments
+ * of the same namespace are paired in document order and checked with
+ * {@link ConfigValidator#validateAgainst(Element, Element)}, and fragments without a counterpart with
+ * {@link ConfigValidator#validate(Element)}. A reload that drops fragments of a namespace with a validator is rejected,
+ * since there is nothing left to validate the removal against. The current configuration is held in an atomically swapped reference, so
+ * {@link #getConfiguration()} never blocks. Listeners are notified on the reload thread, after the swap.
+ */
+public class ConfigurationWatcher implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationWatcher.class);
+
+  private final Path file;
+  private final ClassLoader loader;
+  private final ParseOptions options;
+  private final long debounceMillis;
+
+  private final AtomicReference<TcConfiguration> configuration;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  private final WatchService watchService;
+  private final ScheduledExecutorService reloader;
+  private final Thread watcher;
+  private final WatchKey directoryKey;
+  // the directory and name of the link target, if the file is a symbolic link; only used by the watcher thread
+  private WatchKey targetKey;
+  private Path targetName;
+  private ScheduledFuture<?> pendingReload;
+
+  /**
+   * Parses the file and starts watching it.
+   *
+   * @throws IOException if the file cannot be read or watched
+   * @throws SAXException if the file cannot be parsed
+   */
+  public ConfigurationWatcher(Path file, ClassLoader loader, ParseOptions options, long debounce, TimeUnit unit) throws IOException, SAXException {
+    this.file = file.toAbsolutePath();
+    this.loader = loader;
+    this.options = options;
+    this.debounceMillis = unit.toMillis(debounce);
+    this.configuration = new AtomicReference<>(TCConfigurationParser.parse(this.file, loader, options));
+
+    this.watchService = this.file.getFileSystem().newWatchService();
+    try {
+      this.directoryKey = this.file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      watchTarget();
+    } catch (IOException | RuntimeException e) {
+      try {
+        watchService.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "tc-config-reloader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watcher = new Thread(this::watch, "tc-config-watcher");
+    this.watcher.setDaemon(true);
+    this.watcher.start();
+  }
+
+  public ConfigurationWatcher(Path file, long debounce, TimeUnit unit) throws IOException, SAXException {
+    this(file, Thread.currentThread().getContextClassLoader(), ParseOptions.defaults(), debounce, unit);
+  }
+
+  /**
+   * The latest valid configuration.
+   */
+  public TcConfiguration getConfiguration() {
+    return configuration.get();
+  }
+
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    reloader.shutdownNow();
+  }
+
+  private void watch() {
+    Path name = file.getFileName();
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          changed |= event.kind() == OVERFLOW
+                     || (key == directoryKey && name.equals(event.context()))
+                     || (key == targetKey && targetName.equals(event.context()));
+        }
+        boolean valid = key.reset();
+        if (changed) {
+          scheduleReload();
+          try {
+            watchTarget();
+          } catch (IOException e) {
+            LOGGER.warn("Cannot watch the target of {}: {}", file, e.getMessage());
+          }
+        }
+        if (!valid && key == directoryKey) {
+          LOGGER.warn("Stopped watching {}: its directory is no longer accessible", file);
+          return;
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      // closed
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Starts watching the directory of the file's link target, if it is a symbolic link, and stops watching the
+   * directory of its previous target.
+   */
+  private void watchTarget() throws IOException {
+    WatchKey key = null;
+    Path name = null;
+    if (Files.isSymbolicLink(file)) {
+      Path target = file.toRealPath();
+      key = target.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      name = target.getFileName();
+    }
+    if (targetKey != null && targetKey != key && targetKey != directoryKey) {
+      targetKey.cancel();
+    }
+    targetKey = key;
+    targetName = name;
+  }
+
+  synchronized void scheduleReload() {
+    if (pendingReload != null) {
+      pendingReload.cancel(false);
+    }
+    if (!reloader.isShutdown()) {
+      pendingReload = reloader.schedule(this::reload, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void reload() {
+    TcConfiguration current = configuration.get();
+    TcConfiguration reloaded;
+    try {
+      reloaded = TCConfigurationParser.parse(file, loader, options);
+      validate(current, reloaded);
+    } catch (IOException | SAXException | ValidationException | RuntimeException e) {
+      LOGGER.warn("Ignoring the changes to {}: {}", file, e.getMessage());
+      for (Listener listener : listeners) {
+        try {
+          listener.reloadFailed(e);
+        } catch (RuntimeException failure) {
+          LOGGER.warn("Configuration listener {} failed", listener, failure);
+        }
+      }
+      return;
+    }
+
+    if (configuration.compareAndSet(current, reloaded)) {
+      LOGGER.info("Reloaded {}", file);
+      for (Listener listener : listeners) {
+        try {
+          listener.configurationChanged(current, reloaded);
+        } catch (RuntimeException e) {
+          LOGGER.warn("Configuration listener {} failed", listener, e);
+        }
+      }
+    }
+  }
+
+  private void validate(TcConfiguration current, TcConfiguration reloaded) throws ValidationException {
+    Map<URI, List<Element>> currentFragments = fragmentsByNamespace(current.getPlatformConfiguration());
+    Map<URI, List<Element>> reloadedFragments = fragmentsByNamespace(reloaded.getPlatformConfiguration());
+    for (Map.Entry<URI, List<Element>> entry : currentFragments.entrySet()) {
+      int remaining = reloadedFragments.getOrDefault(entry.getKey(), Collections.emptyList()).size();
+      if (remaining < entry.getValue().size() && TCConfigurationParser.getValidator(entry.getKey(), loader) != null) {
+        throw new ValidationException((entry.getValue().size() - remaining) + " of the " + entry.getValue().size()
+                                      + " plugin fragment(s) of namespace " + entry.getKey() + " were removed", 0);
+      }
+    }
+    for (Map.Entry<URI, List<Element>> entry : reloadedFragments.entrySet()) {
+      ConfigValidator validator = TCConfigurationParser.getValidator(entry.getKey(), loader);
+      if (validator == null) {
+        continue;
+      }
+      List<Element> previous = currentFragments.getOrDefault(entry.getKey(), Collections.emptyList());
+      List<Element> fragments = entry.getValue();
+      for (int i = 0; i < fragments.size(); i++) {
+        if (i < previous.size()) {
+          validator.validateAgainst(previous.get(i), fragments.get(i));
+        } else {
+          validator.validate(fragments.get(i));
+        }
+      }
+    }
+  }
+
+  private static Map<URI, List<Element>> fragmentsByNamespace(TcConfig tcConfig) {
+    Map<URI, List<Element>> fragments = new LinkedHashMap<>();
+    if (tcConfig.getPlugins() != null && tcConfig.getPlugins().getConfigOrService() != null) {
+      for (Object plugin : tcConfig.getPlugins().getConfigOrService()) {
+        Element element = plugin instanceof Service ? ((Service) plugin).getServiceContent() : ((Config) plugin).configContent;
+        fragments.computeIfAbsent(URI.create(element.getNamespaceURI()), ns -> new ArrayList<>()).add(element);
+      }
+    }
+    return fragments;
+  }
+
+  /**
+   * Notified of configuration reloads.
+   */
+  public interface Listener {
+
+    /**
+     * Called after a changed configuration has been validated and published.
+     */
+    void configurationChanged(TcConfiguration oldConfiguration, TcConfiguration newConfiguration);
+
+    /**
+     * Called when a change was not published because the file could not be parsed or failed validation.
+     */
+    default void reloadFailed(Exception cause) {
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.config.util.CanonicalDigest;
+import org.terracotta.config.util.SubstitutionContext;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The on-disk cache of parsed configurations behind {@link ParseOptions#getCacheDirectory()}.
+ * <p>
+ * Each entry is a {@link ConfigSnapshot} named after a digest of the document content, the configuration source and
+ * the {@linkplain SchemaCache#persistentKeyFor persistent schema key}, which identifies this library, the platform schema and the code of
+ * every plugin parser. Any entry that cannot be used as is, whether missing, unreadable, corrupt or stale, is
+ * treated as a miss: the document is parsed and validated in full and the entry rewritten. Entries are written to a
+ * private temporary file and renamed into place, so concurrent readers, in this process or another, only ever see
+ * complete entries, and concurrent writers of the same entry simply replace one another.
+ * <p>
+ * Configurations using substitution parameters that are not
+ * {@linkplain org.terracotta.config.util.TokenResolver#isDeterministic() deterministic}, such as {@code %D}, are never
+ * cached. A hit is reported to the {@link ParseListener} and in the {@link ParseStats} as a single
+ * {@link ParsePhase#SNAPSHOT} phase, followed by the plugin fragments parsed as the {@link ParseOptions} ask.
+ * <p>
+ * The directory holds at most {@value #MAX_ENTRIES} entries: past that, writing an entry evicts the least recently
+ * used quarter of them. Hits refresh the modification time of their entry, which is what recency is judged by.
+ * <p>
+ * Entries hold the platform configuration with its parameters substituted, so on file systems with POSIX permissions
+ * the directory is created, and entries are written, readable by their owner only.
+ */
+final class ParseCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParseCache.class);
+  private static final String SUFFIX = ".tccs";
+  static final int MAX_ENTRIES = 256;
+
+  interface FullParse {
+    TcConfiguration parse() throws IOException, SAXException;
+  }
+
+  private ParseCache() {
+    //
+  }
+
+  static TcConfiguration parse(Path directory, ByteBuffer content, String source, ClassLoader loader, ParseOptions options,
+                               FullParse fullParse) throws IOException, SAXException {
+    PluginParsers parsers = PluginParserRegistry.forLoader(loader);
+    byte[] checksum = ConfigSnapshot.checksum(content);
+    Path entry = directory.resolve(entryName(checksum, parsers.getPersistentSchemaKey(), source));
+
+    try (InputStream in = Files.newInputStream(entry)) {
+      ParseRecorder recorder = new ParseRecorder(source, options.getParseListener());
+      recorder.documentBytes(content.remaining());
+      TcConfiguration cached = ConfigSnapshot.read(in, checksum, parsers.getLoader(),
+                                                   bindings -> bindings != null && isCurrent(bindings, parsers.getLoader()),
+                                                   options, recorder);
+      recorder.completed();
+      touch(entry);
+      LOGGER.debug("Loaded configuration {} from cache entry {}", source, entry);
+      return cached;
+    } catch (NoSuchFileException e) {
+      // miss
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Ignoring cache entry {}: {}", entry, e.toString());
+    }
+
+    TcConfiguration configuration = fullParse.parse();
+    if (configuration.getBindingDigests() == null) {
+      LOGGER.debug("Not caching configuration {}: it uses substitution parameters that are not deterministic", source);
+    } else {
+      store(entry, configuration, checksum);
+    }
+    return configuration;
+  }
+
+  /**
+   * Whether the substitution parameters a cached configuration was resolved with would still get the same values.
+   * Only deterministic resolvers are invoked again, so checking has no side effects.
+   */
+  private static boolean isCurrent(Map<String, String> bindingDigests, ClassLoader loader) {
+    SubstitutionContext substitutions = SubstitutionContext.createDeterministic(loader);
+    for (String parameter : bindingDigests.keySet()) {
+      substitutions.substitute(parameter);
+    }
+    return substitutions.isDeterministic() && ConfigSnapshot.digestBindings(substitutions.getBindings()).equals(bindingDigests);
+  }
+
+  private static void touch(Path entry) {
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      LOGGER.debug("Could not touch cache entry {}: {}", entry, e.toString());
+    }
+  }
+
+  private static void store(Path entry, TcConfiguration configuration, byte[] checksum) {
+    Path directory = entry.getParent();
+    Path temp = null;
+    try {
+      createPrivateDirectories(directory);
+      // created owner-readable only where the file system supports it
+      temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        ConfigSnapshot.write(configuration, checksum, out);
+      }
+      Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      temp = null;
+      evict(directory, MAX_ENTRIES);
+    } catch (IOException | RuntimeException e) {
+      // the cache is an optimization: failing to populate it must not fail the parse
+      LOGGER.debug("Could not write cache entry {}: {}", entry, e.toString());
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          LOGGER.debug("Could not delete {}: {}", temp, e.toString());
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the least recently used quarter of the entries once there are more than {@code maxEntries}. Entries
+   * deleted or replaced concurrently, by this process or another, are skipped.
+   */
+  static void evict(Path directory, int maxEntries) {
+    List<Path> entries = new ArrayList<>();
+    try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      listing.forEach(entries::add);
+    } catch (IOException e) {
+      LOGGER.debug("Could not list cache directory {}: {}", directory, e.toString());
+      return;
+    }
+    if (entries.size() <= maxEntries) {
+      return;
+    }
+    Map<Path, FileTime> lastUsed = new HashMap<>();
+    for (Path entry : entries) {
+      try {
+        lastUsed.put(entry, Files.getLastModifiedTime(entry));
+      } catch (IOException e) {
+        // already gone
+      }
+    }
+    List<Path> byAge = new ArrayList<>(lastUsed.keySet());
+    byAge.sort(Comparator.comparing(lastUsed::get));
+    int excess = byAge.size() - maxEntries * 3 / 4;
+    for (Path entry : byAge.subList(0, Math.max(0, excess))) {
+      try {
+        Files.deleteIfExists(entry);
+      } catch (IOException e) {
+        LOGGER.debug("Could not evict cache entry {}: {}", entry, e.toString());
+      }
+    }
+  }
+
+  private static void createPrivateDirectories(Path directory) throws IOException {
+    if (Files.isDirectory(directory)) {
+      return;
+    }
+    if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    } else {
+      Files.createDirectories(directory);
+    }
+  }
+
+  private static String entryName(byte[] checksum, String schemaKey, String source) {
+    return CodeIdentity.hex(new CanonicalDigest().add(checksum).add(schemaKey).add(source).digest()) + SUFFIX;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+/**
+ * Receives the cost of each {@linkplain ParsePhase phase} of a parse, as set through
+ * {@link ParseOptions#withParseListener(ParseListener)}.
+ * <p>
+ * Plugin fragments can be parsed on an executor or, for lazy plugins, long after the parse call returned; the
+ * listener is called on whichever thread completed the phase and must therefore be thread-safe.
+ */
+public interface ParseListener {
+
+  void phaseCompleted(String source, ParseStats.Timing timing);
+
+  /**
+   * Called when the parse call completes. Lazily parsed plugin fragments are only reported to
+   * {@link #phaseCompleted(String, ParseStats.Timing)}.
+   */
+  default void parseCompleted(ParseStats stats) {
+
+  }
+}
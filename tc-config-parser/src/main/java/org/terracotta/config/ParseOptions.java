@@ -0,0 +1,142 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Options controlling how {@link TCConfigurationParser} processes a configuration document.
+ * <p>
+ * Instances are immutable; the {@code with...} methods return a modified copy.
+ */
+public final class ParseOptions {
+
+  private static final ParseOptions DEFAULTS = new ParseOptions(false, null, false, null, null, false);
+
+  private final boolean streaming;
+  private final Executor pluginExecutor;
+  private final boolean lazyPlugins;
+  private final Path cacheDirectory;
+  private final ParseListener parseListener;
+  private final boolean memoryMapped;
+
+  private ParseOptions(boolean streaming, Executor pluginExecutor, boolean lazyPlugins, Path cacheDirectory,
+                       ParseListener parseListener, boolean memoryMapped) {
+    this.streaming = streaming;
+    this.pluginExecutor = pluginExecutor;
+    this.lazyPlugins = lazyPlugins;
+    this.cacheDirectory = cacheDirectory;
+    this.parseListener = parseListener;
+    this.memoryMapped = memoryMapped;
+  }
+
+  public static ParseOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Whether the document is validated and bound in a single streaming pass instead of being loaded into a DOM first.
+   * <p>
+   * In streaming mode only the {@code config-content} and {@code service-content} fragments handed to plugin parsers
+   * are materialized as DOM subtrees. The resulting {@link TcConfiguration} is the same in both modes.
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  public ParseOptions withStreaming(boolean streaming) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+
+  /**
+   * The executor plugin fragments are parsed on, or {@code null} to parse them one after another on the calling thread.
+   * <p>
+   * With an executor (for instance {@link java.util.concurrent.ForkJoinPool#commonPool()}) the fragments handled by
+   * different plugin parsers are parsed concurrently. Results are still reported in document order, and failures are
+   * reported together once all fragments have been parsed.
+   */
+  public Executor getPluginExecutor() {
+    return pluginExecutor;
+  }
+
+  public ParseOptions withPluginExecutor(Executor pluginExecutor) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+
+  /**
+   * Whether plugin fragments are left unparsed until the {@link TcConfiguration} is asked for them.
+   * <p>
+   * In lazy mode {@link TcConfiguration#getServiceConfigurations()} parses the {@code <service>} fragments on first
+   * call, and {@link TcConfiguration#getExtendedConfiguration(Class)} only parses the {@code <config>} fragments that
+   * can produce the requested type. Each fragment is parsed at most once. Errors in plugin fragments surface on access
+   * rather than from the parse call.
+   */
+  public boolean isLazyPlugins() {
+    return lazyPlugins;
+  }
+
+  public ParseOptions withLazyPlugins(boolean lazyPlugins) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+
+  /**
+   * The directory parsed configurations are cached in, or {@code null} to not cache them.
+   * <p>
+   * Only applies to configurations parsed from a file. Cache entries are {@link ConfigSnapshot}s keyed by the content
+   * of the file, its location and the plugin schemas in use; a configuration found in the cache is returned without
+   * validating the document again. An entry is only used if the substitution parameters it was resolved with still
+   * resolve to the same values, otherwise the file is parsed in full and the entry replaced; configurations using
+   * parameters that resolve differently every time, such as {@code %D}, are not cached at all. Entries are written
+   * atomically, so the directory can be shared by several processes, and the least recently used ones are evicted
+   * past a fixed number of entries.
+   */
+  public Path getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  public ParseOptions withCacheDirectory(Path cacheDirectory) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+
+  /**
+   * The listener told about the cost of each phase of the parse, or {@code null} for none. The breakdown of the last
+   * parse is also available from {@link TcConfiguration#getParseStats()} whether or not a listener is set.
+   */
+  public ParseListener getParseListener() {
+    return parseListener;
+  }
+
+  public ParseOptions withParseListener(ParseListener parseListener) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+
+  /**
+   * Whether configuration files are memory-mapped instead of being read onto the heap.
+   * <p>
+   * Off by default: a mapped file cannot be deleted or replaced on Windows while the mapping is reachable, and
+   * truncating the file while it is being parsed crashes the JVM with {@code SIGBUS} on most platforms. Only enable
+   * this for large files that are known not to change underneath the parse.
+   */
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  public ParseOptions withMemoryMapped(boolean memoryMapped) {
+    return new ParseOptions(streaming, pluginExecutor, lazyPlugins, cacheDirectory, parseListener, memoryMapped);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+/**
+ * The phases {@link TCConfigurationParser} goes through, in order.
+ */
+public enum ParsePhase {
+  /**
+   * Discovering the plugin parsers and compiling the schema, both of which are skipped when already cached.
+   */
+  SCHEMA,
+  /**
+   * Reading and validating the document. In {@linkplain ParseOptions#isStreaming() streaming} mode this also covers
+   * binding, and no {@link #BIND} phase is recorded.
+   */
+  PARSE,
+  /**
+   * Binding the validated document to the platform configuration classes.
+   */
+  BIND,
+  /**
+   * Applying the defaults declared in the schema.
+   */
+  DEFAULTS,
+  /**
+   * Resolving substitution parameters and the server defaults that depend on them, such as host names.
+   */
+  SUBSTITUTION,
+  /**
+   * Loading the configuration from the {@linkplain ParseOptions#getCacheDirectory() parse cache}, which is recorded in
+   * place of all the phases above.
+   */
+  SNAPSHOT,
+  /**
+   * Parsing one plugin fragment; recorded once per fragment, with its namespace.
+   */
+  PLUGIN
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.events.ConfigEvents;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the {@link ParseStats} of one parse, and forwards each timing to the {@link ParseListener}, if any.
+ * Timings may be recorded from several threads.
+ * <p>
+ * Where a {@link org.terracotta.config.events.ConfigEventSink} is installed, each phase is also reported to it.
+ */
+final class ParseRecorder {
+
+  private static final LongSupplier ALLOCATED_BYTES = allocationCounter();
+
+  private final String source;
+  private final ParseListener listener;
+  private final long startNanos = System.nanoTime();
+  private final List<ParseStats.Timing> timings = new ArrayList<>();
+  private long endNanos = startNanos;
+  /** The document stream, only until the {@link ParsePhase#PARSE} phase has read it. */
+  private volatile CountingInputStream document;
+  private volatile long documentBytes = -1;
+  private final Object parseEvent;
+
+  ParseRecorder(String source, ParseListener listener) {
+    this.source = source;
+    this.listener = listener;
+    this.parseEvent = ConfigEvents.AVAILABLE ? ConfigEvents.beginParse() : null;
+  }
+
+  /**
+   * Wraps the document stream so that the bytes read can be reported. The stream is only referenced until the
+   * {@link ParsePhase#PARSE} phase is recorded, so that the configuration does not keep it, and whatever buffer it
+   * reads from, reachable.
+   */
+  InputStream count(InputStream in) {
+    CountingInputStream counting = new CountingInputStream(in);
+    document = counting;
+    return counting;
+  }
+
+  /**
+   * Reports the size of a document that is not read through {@link #count(InputStream)}, such as one whose
+   * configuration is loaded from the parse cache.
+   */
+  void documentBytes(long bytes) {
+    documentBytes = bytes;
+  }
+
+  Mark start(ParsePhase phase) {
+    return start(phase, null, null);
+  }
+
+  /**
+   * @param namespace the namespace of the plugin fragment about to be parsed
+   * @param parser the parser about to parse it
+   */
+  Mark start(ParsePhase phase, String namespace, Object parser) {
+    Object event = ConfigEvents.AVAILABLE ? ConfigEvents.beginPhase(phase) : null;
+    return new Mark(phase, namespace, parser, event, System.nanoTime(), ALLOCATED_BYTES.getAsLong());
+  }
+
+  void record(Mark start) {
+    long now = System.nanoTime();
+    long allocated = start.allocatedBytes < 0 ? -1 : ALLOCATED_BYTES.getAsLong() - start.allocatedBytes;
+    long bytes = -1;
+    if (start.phase == ParsePhase.PARSE) {
+      CountingInputStream counting = document;
+      if (counting != null) {
+        documentBytes = counting.count;
+        document = null;
+      }
+      bytes = documentBytes;
+    }
+    ParseStats.Timing timing = new ParseStats.Timing(start.phase, start.namespace, now - start.nanos, bytes, allocated);
+    if (start.event != null) {
+      ConfigEvents.commitPhase(start.event, source, start.phase, start.namespace,
+                               start.parser == null ? null : start.parser.getClass(), bytes);
+    }
+    synchronized (this) {
+      timings.add(timing);
+      endNanos = Math.max(endNanos, now);
+    }
+    if (listener != null) {
+      listener.phaseCompleted(source, timing);
+    }
+  }
+
+  void completed() {
+    if (parseEvent != null) {
+      ConfigEvents.commitParse(parseEvent, source, documentBytes);
+    }
+    if (listener != null) {
+      listener.parseCompleted(stats());
+    }
+  }
+
+  synchronized ParseStats stats() {
+    return new ParseStats(source, documentBytes, endNanos - startNanos, new ArrayList<>(timings));
+  }
+
+  private static LongSupplier allocationCounter() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+          return () -> threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+    } catch (LinkageError | UnsupportedOperationException e) {
+      // not a HotSpot-derived JVM
+    }
+    return () -> -1;
+  }
+
+  static final class Mark {
+
+    private final ParsePhase phase;
+    private final String namespace;
+    private final Object parser;
+    private final Object event;
+    private final long nanos;
+    private final long allocatedBytes;
+
+    private Mark(ParsePhase phase, String namespace, Object parser, Object event, long nanos, long allocatedBytes) {
+      this.phase = phase;
+      this.namespace = namespace;
+      this.parser = parser;
+      this.event = event;
+      this.nanos = nanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private volatile long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.xml.sax.SAXParseException;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of parsing one file of a {@linkplain TCConfigurationParser#parseAll(java.util.Collection) batch}:
+ * either the parsed configuration, or the reason it could not be parsed.
+ */
+public final class ParseResult {
+
+  private final Path path;
+  private final TcConfiguration configuration;
+  private final List<SAXParseException> parseErrors;
+  private final Exception failure;
+
+  ParseResult(Path path, TcConfiguration configuration) {
+    this.path = path;
+    this.configuration = configuration;
+    this.parseErrors = Collections.emptyList();
+    this.failure = null;
+  }
+
+  ParseResult(Path path, List<SAXParseException> parseErrors, Exception failure) {
+    this.path = path;
+    this.configuration = null;
+    this.parseErrors = Collections.unmodifiableList(parseErrors);
+    this.failure = failure;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public boolean isSuccess() {
+    return failure == null;
+  }
+
+  /**
+   * @return the parsed configuration, or {@code null} if parsing failed
+   */
+  public TcConfiguration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Every schema validation error of the document, in document order; empty if the document is valid or could not be
+   * read at all.
+   */
+  public List<SAXParseException> getParseErrors() {
+    return parseErrors;
+  }
+
+  /**
+   * Why parsing failed, or {@code null} if it succeeded. A {@link TCConfigurationSetupException} for an invalid
+   * document (detailed by {@link #getParseErrors()}) or a failing plugin parser (whose other failures, if any, are
+   * {@linkplain Throwable#getSuppressed() suppressed}), and an {@link java.io.IOException} for a file that could not
+   * be read.
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+
+  @Override
+  public String toString() {
+    return path + (isSuccess() ? ": OK" : ": " + failure.getMessage());
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Where the time went while parsing a configuration: one {@link Timing} per phase, and per plugin fragment.
+ */
+public final class ParseStats {
+
+  private final String source;
+  private final long documentBytes;
+  private final long totalNanos;
+  private final List<Timing> timings;
+
+  ParseStats(String source, long documentBytes, long totalNanos, List<Timing> timings) {
+    this.source = source;
+    this.documentBytes = documentBytes;
+    this.totalNanos = totalNanos;
+    this.timings = Collections.unmodifiableList(timings);
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return the size of the document in bytes, or {@code -1} if it was read as characters
+   */
+  public long getDocumentBytes() {
+    return documentBytes;
+  }
+
+  /**
+   * @return the time from the start of the parse to the end of the last phase recorded so far
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * @return the timings, in the order the phases completed
+   */
+  public List<Timing> getTimings() {
+    return timings;
+  }
+
+  /**
+   * @return the time spent in a phase, summed over its timings
+   */
+  public long getNanos(ParsePhase phase) {
+    long nanos = 0;
+    for (Timing timing : timings) {
+      if (timing.getPhase() == phase) {
+        nanos += timing.getNanos();
+      }
+    }
+    return nanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("ParseStats{source=").append(source)
+        .append(", bytes=").append(documentBytes).append(", totalNanos=").append(totalNanos);
+    for (Timing timing : timings) {
+      sb.append(", ").append(timing);
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * The cost of one phase, or of parsing one plugin fragment.
+   */
+  public static final class Timing {
+
+    private final ParsePhase phase;
+    private final String namespace;
+    private final long nanos;
+    private final long bytes;
+    private final long allocatedBytes;
+
+    Timing(ParsePhase phase, String namespace, long nanos, long bytes, long allocatedBytes) {
+      this.phase = phase;
+      this.namespace = namespace;
+      this.nanos = nanos;
+      this.bytes = bytes;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    public ParsePhase getPhase() {
+      return phase;
+    }
+
+    /**
+     * @return the namespace of the plugin fragment, or {@code null} for the other phases
+     */
+    public String getNamespace() {
+      return namespace;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * @return the number of document bytes the phase read, or {@code -1} if it does not read the document or the
+     *         document was read as characters
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * @return an estimate of the heap the phase allocated on the thread it ran on, or {@code -1} if the JVM does not
+     *         measure allocation per thread
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+      return phase + (namespace == null ? "" : "[" + namespace + "]") + "=" + nanos + "ns"
+             + (bytes < 0 ? "" : "/" + bytes + "B") + (allocatedBytes < 0 ? "" : "/" + allocatedBytes + "B allocated");
+    }
+  }
+}
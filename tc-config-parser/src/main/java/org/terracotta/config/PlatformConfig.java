@@ -0,0 +1,264 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the platform configuration, built once from a {@link TcConfig} with defaults applied.
+ * <p>
+ * Unlike the bound {@link TcConfig}, which is mutable, this view can be shared between threads without
+ * synchronization, and reads do not allocate. Servers and properties are held in arrays and ports as {@code int}s.
+ * Equal host, bind and log strings are shared, so a large topology takes a fraction of the memory of its bound form.
+ */
+public final class PlatformConfig {
+
+  /**
+   * The failover priority of the stripe.
+   */
+  public enum FailoverMode {
+    /** No failover priority is configured. */
+    NONE,
+    AVAILABILITY,
+    CONSISTENCY
+  }
+
+  private final ServerConfig[] servers;
+  private final List<ServerConfig> serverList;
+  private final int clientReconnectWindow;
+  private final String[] propertyNames;
+  private final String[] propertyValues;
+  private final FailoverMode failoverMode;
+  private final int voterCount;
+
+  private PlatformConfig(ServerConfig[] servers, int clientReconnectWindow, String[] propertyNames, String[] propertyValues,
+                         FailoverMode failoverMode, int voterCount) {
+    this.servers = servers;
+    this.serverList = Collections.unmodifiableList(Arrays.asList(servers));
+    this.clientReconnectWindow = clientReconnectWindow;
+    this.propertyNames = propertyNames;
+    this.propertyValues = propertyValues;
+    this.failoverMode = failoverMode;
+    this.voterCount = voterCount;
+  }
+
+  /**
+   * Builds the view of a platform configuration; later changes to {@code tcConfig} are not reflected.
+   */
+  public static PlatformConfig of(TcConfig tcConfig) {
+    Map<String, String> strings = new HashMap<>();
+
+    ServerConfig[] servers;
+    int clientReconnectWindow = -1;
+    Servers boundServers = tcConfig.getServers();
+    if (boundServers == null) {
+      servers = new ServerConfig[0];
+    } else {
+      List<Server> list = boundServers.getServer();
+      servers = new ServerConfig[list.size()];
+      for (int i = 0; i < servers.length; i++) {
+        servers[i] = new ServerConfig(list.get(i), strings);
+      }
+      if (boundServers.getClientReconnectWindow() != null) {
+        clientReconnectWindow = boundServers.getClientReconnectWindow();
+      }
+    }
+
+    String[] propertyNames;
+    String[] propertyValues;
+    TcProperties tcProperties = tcConfig.getTcProperties();
+    if (tcProperties == null) {
+      propertyNames = propertyValues = new String[0];
+    } else {
+      List<Property> list = tcProperties.getProperty();
+      propertyNames = new String[list.size()];
+      propertyValues = new String[list.size()];
+      for (int i = 0; i < propertyNames.length; i++) {
+        propertyNames[i] = share(list.get(i).getName(), strings);
+        propertyValues[i] = share(list.get(i).getValue(), strings);
+      }
+    }
+
+    FailoverMode failoverMode = FailoverMode.NONE;
+    int voterCount = -1;
+    FailoverPriority failoverPriority = tcConfig.getFailoverPriority();
+    if (failoverPriority != null) {
+      if (failoverPriority.getConsistency() != null) {
+        failoverMode = FailoverMode.CONSISTENCY;
+        Voter voter = failoverPriority.getConsistency().getVoter();
+        voterCount = voter == null ? 0 : voter.getCount();
+      } else {
+        failoverMode = FailoverMode.AVAILABILITY;
+      }
+    }
+
+    return new PlatformConfig(servers, clientReconnectWindow, propertyNames, propertyValues, failoverMode, voterCount);
+  }
+
+  private static String share(String value, Map<String, String> strings) {
+    if (value == null) {
+      return null;
+    }
+    String shared = strings.putIfAbsent(value, value);
+    return shared == null ? value : shared;
+  }
+
+  public int getServerCount() {
+    return servers.length;
+  }
+
+  public ServerConfig getServer(int index) {
+    return servers[index];
+  }
+
+  /**
+   * @return the server of that name, or {@code null} if there is none
+   */
+  public ServerConfig getServer(String name) {
+    for (ServerConfig server : servers) {
+      if (name.equals(server.name)) {
+        return server;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the servers in document order, as an immutable list shared between calls
+   */
+  public List<ServerConfig> getServers() {
+    return serverList;
+  }
+
+  /**
+   * @return the client reconnect window in seconds, or {@code -1} if the configuration has no servers section
+   */
+  public int getClientReconnectWindow() {
+    return clientReconnectWindow;
+  }
+
+  public int getPropertyCount() {
+    return propertyNames.length;
+  }
+
+  public String getPropertyName(int index) {
+    return propertyNames[index];
+  }
+
+  public String getPropertyValue(int index) {
+    return propertyValues[index];
+  }
+
+  /**
+   * @return the value of the last tc-property of that name, or {@code null} if there is none
+   */
+  public String getProperty(String name) {
+    for (int i = propertyNames.length - 1; i >= 0; i--) {
+      if (name.equals(propertyNames[i])) {
+        return propertyValues[i];
+      }
+    }
+    return null;
+  }
+
+  public FailoverMode getFailoverMode() {
+    return failoverMode;
+  }
+
+  /**
+   * @return the number of external voters under {@link FailoverMode#CONSISTENCY}, otherwise {@code -1}
+   */
+  public int getVoterCount() {
+    return voterCount;
+  }
+
+  @Override
+  public String toString() {
+    return "PlatformConfig{servers=" + serverList + ", clientReconnectWindow=" + clientReconnectWindow
+           + ", properties=" + propertyNames.length + ", failoverMode=" + failoverMode
+           + (failoverMode == FailoverMode.CONSISTENCY ? ", voters=" + voterCount : "") + "}";
+  }
+
+  /**
+   * One server of the stripe. Ports are {@code -1} when not configured.
+   */
+  public static final class ServerConfig {
+
+    private final String name;
+    private final String host;
+    private final String bind;
+    private final String logs;
+    private final int tsaPort;
+    private final String tsaPortBind;
+    private final int groupPort;
+    private final String groupPortBind;
+
+    private ServerConfig(Server server, Map<String, String> strings) {
+      this.name = share(server.getName(), strings);
+      this.host = share(server.getHost(), strings);
+      this.bind = share(server.getBind(), strings);
+      this.logs = share(server.getLogs(), strings);
+      BindPort tsa = server.getTsaPort();
+      this.tsaPort = tsa == null ? -1 : tsa.getValue();
+      this.tsaPortBind = tsa == null ? null : share(tsa.getBind(), strings);
+      BindPort group = server.getTsaGroupPort();
+      this.groupPort = group == null ? -1 : group.getValue();
+      this.groupPortBind = group == null ? null : share(group.getBind(), strings);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getHost() {
+      return host;
+    }
+
+    public String getBind() {
+      return bind;
+    }
+
+    public String getLogs() {
+      return logs;
+    }
+
+    public int getTsaPort() {
+      return tsaPort;
+    }
+
+    public String getTsaPortBind() {
+      return tsaPortBind;
+    }
+
+    public int getGroupPort() {
+      return groupPort;
+    }
+
+    public String getGroupPortBind() {
+      return groupPortBind;
+    }
+
+    @Override
+    public String toString() {
+      return name + "@" + host + ":" + tsaPort + "/" + groupPort;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared JAXB state for the platform ({@code tcconfig-schema}) types.
+ * <p>
+ * The {@link JAXBContext} is created lazily, once per JVM. {@link Unmarshaller}s and {@link Marshaller}s are not
+ * thread-safe, so they are handed out from small bounded pools: callers borrow one, use it on a single thread and
+ * give it back. When a pool is empty a new instance is created, and when it is full returned instances are dropped.
+ */
+final class PlatformJaxb {
+
+  private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private static final BlockingQueue<Unmarshaller> UNMARSHALLERS = new ArrayBlockingQueue<>(POOL_SIZE);
+  private static final BlockingQueue<Marshaller> MARSHALLERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+  private static volatile JAXBContext context;
+
+  private PlatformJaxb() {
+    //
+  }
+
+  static JAXBContext context() throws JAXBException {
+    JAXBContext jc = context;
+    if (jc == null) {
+      synchronized (PlatformJaxb.class) {
+        jc = context;
+        if (jc == null) {
+          jc = JAXBContext.newInstance("org.terracotta.config", TCConfigurationParser.class.getClassLoader());
+          context = jc;
+        }
+      }
+    }
+    return jc;
+  }
+
+  static Unmarshaller borrowUnmarshaller() throws JAXBException {
+    Unmarshaller unmarshaller = UNMARSHALLERS.poll();
+    return unmarshaller == null ? context().createUnmarshaller() : unmarshaller;
+  }
+
+  static void release(Unmarshaller unmarshaller) {
+    UNMARSHALLERS.offer(unmarshaller);
+  }
+
+  static Marshaller borrowMarshaller() throws JAXBException {
+    Marshaller marshaller = MARSHALLERS.poll();
+    if (marshaller == null) {
+      marshaller = context().createMarshaller();
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    }
+    return marshaller;
+  }
+
+  static void release(Marshaller marshaller) {
+    MARSHALLERS.offer(marshaller);
+  }
+}
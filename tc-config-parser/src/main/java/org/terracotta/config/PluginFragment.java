@@ -0,0 +1,265 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.service.ExtendedConfigParser;
+import org.terracotta.config.service.ServiceConfigParser;
+import org.w3c.dom.Element;
+
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@code <service>} or {@code <config>} entry of the {@code <plugins>} section, paired with the parser for its
+ * namespace. The fragment is parsed at most once, on first request; a failed parse is retried on the next request.
+ * <p>
+ * Plugin parsers are discovered once per class loader and shared by every configuration parsed through it, while
+ * fragments get parsed from executor threads, lazily on access, and by concurrent batch parses. Unless a parser is
+ * {@linkplain ServiceConfigParser#isThreadSafe() thread-safe}, each call into it is therefore made holding a private
+ * lock of that parser, so that it never sees concurrent calls.
+ */
+final class PluginFragment {
+
+  private final ServiceConfigParser serviceParser;
+  private final ExtendedConfigParser configParser;
+  private final Element element;
+  private final String source;
+  private final ParseRecorder recorder;
+  /** The lock of the parser, or {@code null} if it is thread-safe. */
+  private final Object lock;
+
+  private volatile boolean parsed;
+  private Object result;
+
+  private PluginFragment(ServiceConfigParser serviceParser, ExtendedConfigParser configParser, Element element, String source,
+                         ParseRecorder recorder, Object lock) {
+    this.serviceParser = serviceParser;
+    this.configParser = configParser;
+    this.element = element;
+    this.source = source;
+    this.recorder = recorder;
+    this.lock = lock;
+  }
+
+  /**
+   * Resolves the parser of every plugin entry, in document order.
+   *
+   * @throws TCConfigurationSetupException if no parser handles the namespace of an entry
+   */
+  static List<PluginFragment> resolve(TcConfig tcConfig, PluginParsers parsers, String source) {
+    return resolve(tcConfig, parsers, source, null);
+  }
+
+  /**
+   * @param recorder records the time spent parsing each fragment, if not {@code null}
+   */
+  static List<PluginFragment> resolve(TcConfig tcConfig, PluginParsers parsers, String source, ParseRecorder recorder) {
+    List<PluginFragment> fragments = new ArrayList<>();
+    if (tcConfig.getPlugins() != null && tcConfig.getPlugins().getConfigOrService() != null) {
+      for (Object plugin : tcConfig.getPlugins().getConfigOrService()) {
+        if (plugin instanceof Service) {
+          Element element = ((Service) plugin).getServiceContent();
+          URI namespace = URI.create(element.getNamespaceURI());
+          ServiceConfigParser parser = parsers.getServiceParser(namespace);
+          if (parser == null) {
+            throw new TCConfigurationSetupException("Can't find parser for service " + namespace);
+          }
+          fragments.add(new PluginFragment(parser, null, element, source, recorder, parsers.getLock(parser)));
+        } else if (plugin instanceof Config) {
+          Element element = ((Config) plugin).configContent;
+          URI namespace = URI.create(element.getNamespaceURI());
+          ExtendedConfigParser parser = parsers.getConfigParser(namespace);
+          if (parser == null) {
+            throw new TCConfigurationSetupException("Can't find parser for config " + namespace);
+          }
+          fragments.add(new PluginFragment(null, parser, element, source, recorder, parsers.getLock(parser)));
+        }
+      }
+    }
+    return fragments;
+  }
+
+  /**
+   * Makes sure every fragment is parsed.
+   * <p>
+   * Without an executor the fragments are parsed one after another on the calling thread, and the first failure is
+   * thrown as is. With an executor, fragments are parsed concurrently, except that fragments sharing a
+   * parser that is not thread-safe are handed to it sequentially. Every fragment is parsed, then the first failure in
+   * document order is thrown with any others attached as suppressed exceptions.
+   * <p>
+   * The calling thread takes part in the work, and only ever waits for groups of fragments that another thread is
+   * already parsing, never for a task still queued on the executor. Calling this from a task running on that same
+   * executor (a nested parse, or a saturated pool) therefore cannot deadlock.
+   */
+  static void parseAll(List<PluginFragment> fragments, Executor executor) {
+    if (executor == null) {
+      for (PluginFragment fragment : fragments) {
+        fragment.get();
+      }
+      return;
+    }
+
+    Throwable[] failures = new Throwable[fragments.size()];
+    Map<Object, List<Integer>> byLock = new IdentityHashMap<>();
+    for (int i = 0; i < fragments.size(); i++) {
+      PluginFragment fragment = fragments.get(i);
+      if (!fragment.parsed) {
+        byLock.computeIfAbsent(fragment.lock == null ? fragment : fragment.lock, l -> new ArrayList<>()).add(i);
+      }
+    }
+
+    Queue<List<Integer>> groups = new ConcurrentLinkedQueue<>(byLock.values());
+    CountDownLatch done = new CountDownLatch(groups.size());
+    Runnable worker = () -> {
+      List<Integer> group;
+      while ((group = groups.poll()) != null) {
+        for (int i : group) {
+          try {
+            fragments.get(i).get();
+          } catch (Throwable t) {
+            failures[i] = t;
+          }
+        }
+        done.countDown();
+      }
+    };
+    for (int helpers = groups.size() - 1; helpers > 0; helpers--) {
+      try {
+        executor.execute(worker);
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+    }
+    worker.run();
+    boolean interrupted = false;
+    while (true) {
+      try {
+        done.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    Throwable failure = null;
+    for (Throwable t : failures) {
+      if (t == null) {
+        continue;
+      } else if (failure == null) {
+        failure = t;
+      } else {
+        failure.addSuppressed(t);
+      }
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new TCConfigurationSetupException(failure.getMessage(), (Exception) failure);
+    }
+  }
+
+  boolean isService() {
+    return serviceParser != null;
+  }
+
+  Element getElement() {
+    return element;
+  }
+
+  Object getParser() {
+    return parser();
+  }
+
+  byte[] fingerprint() {
+    if (lock == null) {
+      return fingerprintUnlocked();
+    }
+    synchronized (lock) {
+      return fingerprintUnlocked();
+    }
+  }
+
+  private byte[] fingerprintUnlocked() {
+    return isService() ? serviceParser.fingerprint(element) : configParser.fingerprint(element);
+  }
+
+  /**
+   * Sets the parse result obtained by other means, such as from a snapshot.
+   */
+  synchronized void setResult(Object result) {
+    this.result = result;
+    this.parsed = true;
+  }
+
+  /**
+   * Whether parsing this {@code <config>} fragment could yield an instance of the given type, judging by the parser's declared
+   * {@linkplain ExtendedConfigParser#getConfigType() config type}.
+   */
+  boolean mayProduce(Class<?> type) {
+    Class<?> produced = configParser.getConfigType();
+    if (produced == null || type.isAssignableFrom(produced) || produced.isAssignableFrom(type)) {
+      return true;
+    }
+    // a subclass of one type could still implement the other
+    return (type.isInterface() && !Modifier.isFinal(produced.getModifiers()))
+           || (produced.isInterface() && !Modifier.isFinal(type.getModifiers()));
+  }
+
+  Object get() {
+    if (!parsed) {
+      synchronized (this) {
+        if (!parsed) {
+          if (lock == null) {
+            parse();
+          } else {
+            synchronized (lock) {
+              parse();
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private void parse() {
+    ParseRecorder.Mark start = recorder == null ? null : recorder.start(ParsePhase.PLUGIN, element.getNamespaceURI(), parser());
+    result = serviceParser != null ? serviceParser.parse(element, source) : configParser.parse(element, source);
+    parsed = true;
+    if (recorder != null) {
+      recorder.record(start);
+    }
+  }
+
+  private Object parser() {
+    return serviceParser != null ? serviceParser : configParser;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.service.ConfigValidator;
+import org.terracotta.config.util.LoaderCache;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of the plugin parsers discovered per class loader.
+ * <p>
+ * {@link java.util.ServiceLoader} discovery runs once per class loader. Neither the registry nor the
+ * {@link PluginParsers} keep a loader alive: the parsers of a loader go away with it (see {@link LoaderCache}).
+ * <p>
+ * Lookups are lock-free; discovery for different loaders proceeds independently.
+ */
+final class PluginParserRegistry {
+
+  private static final LoaderCache<PluginParsers> REGISTRY = new LoaderCache<>(PluginParsers::discover, PluginParserRegistry::parsersOf);
+
+  private PluginParserRegistry() {
+    //
+  }
+
+  static PluginParsers forLoader(ClassLoader loader) {
+    return REGISTRY.get(loader == null ? ClassLoader.getSystemClassLoader() : loader);
+  }
+
+  static ConfigValidator getValidator(URI namespace, ClassLoader loader) {
+    PluginParsers parsers = REGISTRY.peek(loader == null ? ClassLoader.getSystemClassLoader() : loader);
+    return parsers == null ? null : parsers.getValidator(namespace);
+  }
+
+  /**
+   * Looks up a validator for the namespace among the parsers of every loader seen so far.
+   */
+  static ConfigValidator getValidator(URI namespace) {
+    return REGISTRY.search(parsers -> parsers.getValidator(namespace));
+  }
+
+  private static Iterable<?> parsersOf(PluginParsers parsers) {
+    List<Object> all = new ArrayList<>(parsers.getServiceParsers());
+    all.addAll(parsers.getConfigParsers());
+    return all;
+  }
+}
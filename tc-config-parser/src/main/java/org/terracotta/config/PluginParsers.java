@@ -0,0 +1,150 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.service.ConfigValidator;
+import org.terracotta.config.service.ExtendedConfigParser;
+import org.terracotta.config.service.ServiceConfigParser;
+import org.xml.sax.SAXException;
+
+import javax.xml.validation.Schema;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The plugin parsers discovered through one class loader. Instances are immutable once built.
+ * <p>
+ * The loader itself is only held weakly, so that the registry holding these parsers never keeps it alive.
+ */
+final class PluginParsers {
+
+  private final WeakReference<ClassLoader> loader;
+  private final List<ServiceConfigParser> serviceParsers;
+  private final List<ExtendedConfigParser> configParsers;
+  private final Map<URI, ServiceConfigParser> serviceParsersByNamespace;
+  private final Map<URI, ExtendedConfigParser> configParsersByNamespace;
+  private final Map<Object, Object> locks = new IdentityHashMap<>();
+  private final String schemaKey;
+  private volatile String persistentSchemaKey;
+
+  private PluginParsers(ClassLoader loader, List<ServiceConfigParser> serviceParsers, List<ExtendedConfigParser> configParsers) {
+    this.loader = new WeakReference<>(loader);
+    this.serviceParsers = Collections.unmodifiableList(serviceParsers);
+    this.configParsers = Collections.unmodifiableList(configParsers);
+
+    Map<URI, ServiceConfigParser> services = new HashMap<>();
+    for (ServiceConfigParser parser : serviceParsers) {
+      services.put(parser.getNamespace(), parser);
+      if (!parser.isThreadSafe()) {
+        locks.put(parser, new Object());
+      }
+    }
+    Map<URI, ExtendedConfigParser> configs = new HashMap<>();
+    for (ExtendedConfigParser parser : configParsers) {
+      configs.put(parser.getNamespace(), parser);
+      if (!parser.isThreadSafe()) {
+        locks.put(parser, new Object());
+      }
+    }
+    this.serviceParsersByNamespace = services;
+    this.configParsersByNamespace = configs;
+    this.schemaKey = SchemaCache.keyFor(serviceParsers, configParsers);
+  }
+
+  static PluginParsers discover(ClassLoader loader) {
+    List<ServiceConfigParser> serviceParsers = new ArrayList<>();
+    for (ServiceConfigParser parser : ServiceLoader.load(ServiceConfigParser.class, loader)) {
+      serviceParsers.add(parser);
+    }
+    List<ExtendedConfigParser> configParsers = new ArrayList<>();
+    for (ExtendedConfigParser parser : ServiceLoader.load(ExtendedConfigParser.class, loader)) {
+      configParsers.add(parser);
+    }
+    return new PluginParsers(loader, serviceParsers, configParsers);
+  }
+
+  ClassLoader getLoader() {
+    return loader.get();
+  }
+
+  List<ServiceConfigParser> getServiceParsers() {
+    return serviceParsers;
+  }
+
+  List<ExtendedConfigParser> getConfigParsers() {
+    return configParsers;
+  }
+
+  ServiceConfigParser getServiceParser(URI namespace) {
+    return serviceParsersByNamespace.get(namespace);
+  }
+
+  ExtendedConfigParser getConfigParser(URI namespace) {
+    return configParsersByNamespace.get(namespace);
+  }
+
+  ConfigValidator getValidator(URI namespace) {
+    ServiceConfigParser serviceParser = serviceParsersByNamespace.get(namespace);
+    if (serviceParser != null) {
+      return serviceParser.getConfigValidator();
+    }
+    ExtendedConfigParser configParser = configParsersByNamespace.get(namespace);
+    if (configParser != null) {
+      return configParser.getConfigValidator();
+    }
+    return null;
+  }
+
+  /**
+   * The lock to hold while calling into one of these parsers, or {@code null} if it is thread-safe. Locks are private,
+   * so that they cannot interfere with any locking the parser does itself.
+   */
+  Object getLock(Object parser) {
+    return locks.get(parser);
+  }
+
+  /**
+   * Identity of the schema set made of the platform schema and these parsers' schemas.
+   */
+  String getSchemaKey() {
+    return schemaKey;
+  }
+
+  /**
+   * The {@linkplain SchemaCache#persistentKeyFor persistent identity} of the same schema set, computed on first call.
+   */
+  String getPersistentSchemaKey() {
+    String key = persistentSchemaKey;
+    if (key == null) {
+      key = SchemaCache.persistentKeyFor(serviceParsers, configParsers);
+      persistentSchemaKey = key;
+    }
+    return key;
+  }
+
+  Schema getSchema() throws IOException, SAXException {
+    return SchemaCache.getSchema(loader.get(), schemaKey, serviceParsers, configParsers);
+  }
+}
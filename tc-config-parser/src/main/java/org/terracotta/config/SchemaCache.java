@@ -0,0 +1,125 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.terracotta.config.service.ExtendedConfigParser;
+import org.terracotta.config.service.ServiceConfigParser;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * Caches compiled {@link Schema} instances so that repeated parses skip schema compilation.
+ * <p>
+ * Schemas are held per class loader (weakly, so entries go away with their loader) and keyed by the set of plugin
+ * namespaces discovered through that loader, together with the parser classes and any schema version hint they
+ * expose. {@link ConfigSnapshot}s identify the schema set by the {@linkplain #persistentKeyFor persistent key}
+ * instead, so that snapshots go stale when a plugin jar is replaced.
+ * Compiled schemas are immutable and thread-safe, so a cached instance can be shared by concurrent parses.
+ */
+final class SchemaCache {
+
+  private static final SchemaFactory XSD_SCHEMA_FACTORY = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+  private static final Map<ClassLoader, Map<String, Schema>> SCHEMAS = new WeakHashMap<>();
+
+  private SchemaCache() {
+    //
+  }
+
+  static Schema getSchema(ClassLoader loader, Collection<ServiceConfigParser> serviceParsers,
+                          Collection<ExtendedConfigParser> configParsers) throws IOException, SAXException {
+    return getSchema(loader, keyFor(serviceParsers, configParsers), serviceParsers, configParsers);
+  }
+
+  static Schema getSchema(ClassLoader loader, String key, Collection<ServiceConfigParser> serviceParsers,
+                          Collection<ExtendedConfigParser> configParsers) throws IOException, SAXException {
+    Schema schema;
+    synchronized (SCHEMAS) {
+      schema = SCHEMAS.getOrDefault(loader, Collections.emptyMap()).get(key);
+    }
+    if (schema != null) {
+      return schema;
+    }
+
+    schema = compile(serviceParsers, configParsers);
+    synchronized (SCHEMAS) {
+      Schema raced = SCHEMAS.computeIfAbsent(loader, l -> new HashMap<>()).putIfAbsent(key, schema);
+      return raced == null ? schema : raced;
+    }
+  }
+
+  /**
+   * Identity of the schema set made of the platform schema and the given plugin parsers' schemas, as far as this
+   * process is concerned: parsers are told apart by namespace, class and schema version hint only.
+   */
+  static String keyFor(Collection<ServiceConfigParser> serviceParsers, Collection<ExtendedConfigParser> configParsers) {
+    return String.join("\n", entries(serviceParsers, configParsers, false));
+  }
+
+  /**
+   * Identity of the same schema set that also holds across processes: it adds the {@linkplain CodeIdentity identity}
+   * of the code every parser and this library were loaded from, so it changes when any of their jars is replaced.
+   * Computing it digests those jars, so only persistent caches ask for it.
+   */
+  static String persistentKeyFor(Collection<ServiceConfigParser> serviceParsers, Collection<ExtendedConfigParser> configParsers) {
+    return "platform|" + ConfigSnapshot.platformKey() + "\n" + String.join("\n", entries(serviceParsers, configParsers, true));
+  }
+
+  private static TreeSet<String> entries(Collection<ServiceConfigParser> serviceParsers,
+                                         Collection<ExtendedConfigParser> configParsers, boolean code) {
+    TreeSet<String> entries = new TreeSet<>();
+    for (ServiceConfigParser parser : serviceParsers) {
+      entries.add("service|" + parser.getNamespace() + "|" + parser.getClass().getName() + "|" + parser.getXmlSchemaVersion()
+                  + (code ? "|" + CodeIdentity.of(parser.getClass()) : ""));
+    }
+    for (ExtendedConfigParser parser : configParsers) {
+      entries.add("config|" + parser.getNamespace() + "|" + parser.getClass().getName() + "|" + parser.getXmlSchemaVersion()
+                  + (code ? "|" + CodeIdentity.of(parser.getClass()) : ""));
+    }
+    return entries;
+  }
+
+  private static Schema compile(Collection<ServiceConfigParser> serviceParsers,
+                                Collection<ExtendedConfigParser> configParsers) throws IOException, SAXException {
+    List<Source> schemaSources = new ArrayList<>();
+    schemaSources.add(new StreamSource(TCConfigurationParser.TERRACOTTA_XML_SCHEMA.openStream()));
+    for (ServiceConfigParser parser : serviceParsers) {
+      schemaSources.add(parser.getXmlSchema());
+    }
+    for (ExtendedConfigParser parser : configParsers) {
+      schemaSources.add(parser.getXmlSchema());
+    }
+    synchronized (XSD_SCHEMA_FACTORY) {
+      // SchemaFactory is not thread-safe
+      return XSD_SCHEMA_FACTORY.newSchema(schemaSources.toArray(new Source[schemaSources.size()]));
+    }
+  }
+}
@@ -20,74 +20,95 @@ package org.terracotta.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terracotta.config.service.ConfigValidator;
-import org.terracotta.config.util.DefaultSubstitutor;
-import org.terracotta.config.util.ParameterSubstitutor;
-import org.terracotta.entity.ServiceProviderConfiguration;
+import org.terracotta.config.util.SubstitutionContext;
+import org.terracotta.config.util.SubstitutionTemplate;
 import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
 
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.SchemaFactory;
-import java.io.ByteArrayInputStream;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URL;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.ServiceLoader;
 import java.util.List;
-import org.terracotta.config.service.ServiceConfigParser;
-import org.terracotta.config.service.ExtendedConfigParser;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TCConfigurationParser {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TCConfigurationParser.class);
-  private static final SchemaFactory XSD_SCHEMA_FACTORY = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
   public static final URL TERRACOTTA_XML_SCHEMA = TCConfigurationParser.class.getResource("/terracotta.xsd");
   private static final String WILDCARD_IP = "0.0.0.0";
   public static final int MIN_PORTNUMBER = 0x0FFF;
   public static final int MAX_PORTNUMBER = 0xFFFF;
   public static final String DEFAULT_LOGS = "logs";
 
-  private static final Map<URI, ServiceConfigParser> serviceParsers = new HashMap<>();
-  private static final Map<URI, ExtendedConfigParser> configParsers = new HashMap<>();
-
-  private static TcConfiguration parseStream(InputStream in, String source, ClassLoader loader) throws IOException, SAXException {
-    Collection<Source> schemaSources = new ArrayList<>();
+  private static final ThreadLocal<SAXParserFactory> SAX_PARSER_FACTORY = ThreadLocal.withInitial(() -> {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory;
+  });
 
-    schemaSources.add(new StreamSource(TERRACOTTA_XML_SCHEMA.openStream()));
+  private static TcConfiguration parseStream(InputSource in, String source, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parseStream(in, source, loader, options, null);
+  }
 
-    for (ServiceConfigParser parser : loadServiceConfigurationParserClasses(loader)) {
-      schemaSources.add(parser.getXmlSchema());
-      serviceParsers.put(parser.getNamespace(), parser);
+  /**
+   * @param errors collects the validation errors of the document, if not {@code null}
+   */
+  private static TcConfiguration parseStream(InputSource in, String source, ClassLoader loader, ParseOptions options,
+                                             Collection<SAXParseException> errors) throws IOException, SAXException {
+    ParseRecorder recorder = new ParseRecorder(source, options.getParseListener());
+    if (in.getByteStream() != null) {
+      in.setByteStream(recorder.count(in.getByteStream()));
     }
-    for (ExtendedConfigParser parser : loadConfigurationParserClasses(loader)) {
-      schemaSources.add(parser.getXmlSchema());
-      configParsers.put(parser.getNamespace(), parser);
+    ParseRecorder.Mark start = recorder.start(ParsePhase.SCHEMA);
+    PluginParsers parsers = PluginParserRegistry.forLoader(loader);
+    Schema schema = parsers.getSchema();
+    recorder.record(start);
+
+    try {
+      TcConfig tcConfig = options.isStreaming() ? bindStreaming(in, schema, errors, recorder) : bindDocument(in, schema, errors, recorder);
+      return buildConfiguration(tcConfig, source, parsers, options, recorder);
+    } catch (JAXBException e) {
+      throw new TCConfigurationSetupException(e);
     }
+  }
 
+  private static TcConfig bindDocument(InputSource in, Schema schema, Collection<SAXParseException> errors,
+                                       ParseRecorder recorder) throws IOException, SAXException, JAXBException {
     DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
     factory.setNamespaceAware(true);
     factory.setIgnoringComments(true);
     factory.setIgnoringElementContentWhitespace(true);
-    factory.setSchema(XSD_SCHEMA_FACTORY.newSchema(schemaSources.toArray(new Source[schemaSources.size()])));
+    factory.setSchema(schema);
 
     final DocumentBuilder domBuilder;
     try {
@@ -97,10 +118,70 @@ public class TCConfigurationParser {
     }
     CollectingErrorHandler errorHandler = new CollectingErrorHandler();
     domBuilder.setErrorHandler(errorHandler);
+    ParseRecorder.Mark start = recorder.start(ParsePhase.PARSE);
     final Element config = domBuilder.parse(in).getDocumentElement();
+    recorder.record(start);
+
+    checkErrors(errorHandler.getErrors(), errors);
+
+    Unmarshaller u = PlatformJaxb.borrowUnmarshaller();
+    try {
+      start = recorder.start(ParsePhase.BIND);
+      TcConfig tcConfig = u.unmarshal(config, TcConfig.class).getValue();
+      recorder.record(start);
+      return tcConfig;
+    } finally {
+      PlatformJaxb.release(u);
+    }
+  }
+
+  /**
+   * Validates and binds the document in a single SAX pass: parser events flow through the schema validator straight
+   * into the JAXB unmarshaller, so no DOM is built beyond the plugin content fragments.
+   */
+  private static TcConfig bindStreaming(InputSource in, Schema schema, Collection<SAXParseException> errors,
+                                        ParseRecorder recorder) throws IOException, SAXException, JAXBException {
+    final XMLReader reader;
+    try {
+      reader = SAX_PARSER_FACTORY.get().newSAXParser().getXMLReader();
+    } catch (ParserConfigurationException e) {
+      throw new AssertionError(e);
+    }
+
+    CollectingErrorHandler errorHandler = new CollectingErrorHandler();
+    Unmarshaller u = PlatformJaxb.borrowUnmarshaller();
+    try {
+      UnmarshallerHandler unmarshallerHandler = u.getUnmarshallerHandler();
+      ValidatorHandler validatorHandler = schema.newValidatorHandler();
+      validatorHandler.setErrorHandler(errorHandler);
+      validatorHandler.setContentHandler(new ElementContentWhitespaceFilter(unmarshallerHandler));
+
+      reader.setErrorHandler(errorHandler);
+      reader.setContentHandler(validatorHandler);
+      ParseRecorder.Mark start = recorder.start(ParsePhase.PARSE);
+      try {
+        reader.parse(in);
+      } catch (SAXException e) {
+        // binding can trip over content the validator has already reported
+        if (errorHandler.getErrors().isEmpty() || errorHandler.getErrors().contains(e)) {
+          throw e;
+        }
+      }
+
+      checkErrors(errorHandler.getErrors(), errors);
+      TcConfig tcConfig = (TcConfig) JAXBIntrospector.getValue(unmarshallerHandler.getResult());
+      recorder.record(start);
+      return tcConfig;
+    } finally {
+      PlatformJaxb.release(u);
+    }
+  }
 
-    Collection<SAXParseException> parseErrors = errorHandler.getErrors();
+  private static void checkErrors(Collection<SAXParseException> parseErrors, Collection<SAXParseException> errors) throws TCConfigurationSetupException {
     if(parseErrors.size() != 0) {
+      if (errors != null) {
+        errors.addAll(parseErrors);
+      }
       StringBuffer buf = new StringBuffer("Couldn't parse configuration file, there are " + parseErrors.size() + " error(s).\n");
       int i = 1;
       for (SAXParseException parseError : parseErrors) {
@@ -110,67 +191,68 @@ public class TCConfigurationParser {
       }
       throw new TCConfigurationSetupException(buf.toString());
     }
+  }
 
-    try {
-      JAXBContext jc = JAXBContext.newInstance("org.terracotta.config", TCConfigurationParser.class.getClassLoader());
-      Unmarshaller u = jc.createUnmarshaller();
+  private static TcConfiguration buildConfiguration(TcConfig tcConfig, String source, PluginParsers parsers, ParseOptions options,
+                                                    ParseRecorder recorder) {
+    ParseRecorder.Mark start = recorder.start(ParsePhase.DEFAULTS);
+    if(tcConfig.getServers() == null) {
+      Servers servers = new Servers();
+      tcConfig.setServers(servers);
+    }
 
-      TcConfig tcConfig = u.unmarshal(config, TcConfig.class).getValue();
-      if(tcConfig.getServers() == null) {
-        Servers servers = new Servers();
-        tcConfig.setServers(servers);
-      }
+    if(tcConfig.getServers().getServer().isEmpty()) {
+      tcConfig.getServers().getServer().add(new Server());
+    }
+    DefaultsApplier.applyDefaults(tcConfig);
+    recorder.record(start);
 
-      if(tcConfig.getServers().getServer().isEmpty()) {
-        tcConfig.getServers().getServer().add(new Server());
-      }
-      DefaultSubstitutor.applyDefaults(tcConfig);
-      applyPlatformDefaults(tcConfig, source);
-
-      List<ServiceProviderConfiguration> serviceConfigurations = new ArrayList<>();
-      List<Object> configObjects = new ArrayList<>();
-      if (tcConfig.getPlugins()!= null && tcConfig.getPlugins().getConfigOrService()!= null) {
-        //now parse the service configuration.
-        for (Object plugin : tcConfig.getPlugins().getConfigOrService()) {
-          if(plugin instanceof Service) {
-            Element element = ((Service) plugin).getServiceContent();
-            URI namespace = URI.create(element.getNamespaceURI());
-            ServiceConfigParser parser = serviceParsers.get(namespace);
-            if (parser == null) {
-              throw new TCConfigurationSetupException("Can't find parser for service " + namespace);
-            }
-            ServiceProviderConfiguration serviceProviderConfiguration = parser.parse(element, source);
-            serviceConfigurations.add(serviceProviderConfiguration);
-          } else if(plugin instanceof Config) {
-            Element element = ((Config) plugin).configContent;
-            URI namespace = URI.create(element.getNamespaceURI());
-            ExtendedConfigParser parser = configParsers.get(namespace);
-            if (parser == null) {
-              throw new TCConfigurationSetupException("Can't find parser for config " + namespace);
-            }
-            Object co = parser.parse(element, source);
-            configObjects.add(co);
-          }
-        }
-      }
+    start = recorder.start(ParsePhase.SUBSTITUTION);
+    SubstitutionContext substitutions = SubstitutionContext.create(parsers.getLoader());
+    List<Map<String, String>> hostTemplates = applyPlatformDefaults(tcConfig, source, substitutions);
+    recorder.record(start);
 
-      return new TcConfiguration(tcConfig, source, configObjects, serviceConfigurations);
-    } catch (JAXBException e) {
-      throw new TCConfigurationSetupException(e);
+    List<PluginFragment> fragments = PluginFragment.resolve(tcConfig, parsers, source, recorder);
+    if (!options.isLazyPlugins()) {
+      PluginFragment.parseAll(fragments, options.getPluginExecutor());
     }
+    TcConfiguration configuration = new TcConfiguration(tcConfig, source, fragments, options.getPluginExecutor(),
+                                                        options.isLazyPlugins(), parsers::getPersistentSchemaKey,
+                                                        substitutions.isDeterministic() ? ConfigSnapshot.digestBindings(substitutions.getBindings()) : null,
+                                                        hostTemplates, recorder);
+    recorder.completed();
+    return configuration;
   }
 
-  private static void applyPlatformDefaults(TcConfig tcConfig, String source) {
+  /**
+   * @return the {@linkplain TcConfiguration#getHostTemplates() host templates} of the servers
+   */
+  private static List<Map<String, String>> applyPlatformDefaults(TcConfig tcConfig, String source, SubstitutionContext substitutions) {
+    List<Map<String, String>> hostTemplates = new ArrayList<>();
     for(Server server : tcConfig.getServers().getServer()) {
-      TCConfigurationParser.setDefaultBind(server);
-      TCConfigurationParser.initializeTsaPort(server);
-      TCConfigurationParser.initializeTsaGroupPort(server);
-      TCConfigurationParser.initializeNameAndHost(server);
-      TCConfigurationParser.initializeLogsDirectory(server, source);
+      Map<String, String> templates = new HashMap<>();
+      TCConfigurationParser.setDefaultBind(server, substitutions, templates);
+      TCConfigurationParser.initializeTsaPort(server, templates);
+      TCConfigurationParser.initializeTsaGroupPort(server, templates);
+      TCConfigurationParser.initializeNameAndHost(server, substitutions, templates);
+      TCConfigurationParser.initializeLogsDirectory(server, source, substitutions, templates);
+      hostTemplates.add(templates.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(templates));
+    }
+    return Collections.unmodifiableList(hostTemplates);
+  }
+
+  /**
+   * Substitutes a server attribute, keeping it as written in {@code templates} if it refers to the local host identity.
+   */
+  private static String substitute(String value, String attribute, SubstitutionContext substitutions, Map<String, String> templates) {
+    SubstitutionTemplate template = SubstitutionTemplate.compile(value);
+    if (template.usesHostIdentity()) {
+      templates.put(attribute, value);
     }
+    return template.render(substitutions);
   }
 
-  private static void initializeTsaPort(Server server) {
+  private static void initializeTsaPort(Server server, Map<String, String> templates) {
     if(server.getTsaPort() == null) {
       BindPort tsaPort = new BindPort();
       tsaPort.setValue(TCConfigDefaults.TSA_PORT);
@@ -178,14 +260,27 @@ public class TCConfigurationParser {
     }
     if (server.getTsaPort().getBind() == null) {
       server.getTsaPort().setBind(server.getBind());
+      inheritBindTemplate(templates, ConfigDigests.TSA_PORT_BIND);
+    }
+  }
+
+  private static void inheritBindTemplate(Map<String, String> templates, String attribute) {
+    String bind = templates.get(ConfigDigests.BIND);
+    if (bind != null) {
+      templates.put(attribute, bind);
     }
   }
 
-  private static void initializeLogsDirectory(Server server, String source) {
+  private static void initializeLogsDirectory(Server server, String source, SubstitutionContext substitutions, Map<String, String> templates) {
     if(server.getLogs() == null) {
       server.setLogs(DEFAULT_LOGS + "/%h-" + server.getTsaPort().getValue());
     }
-    server.setLogs(getAbsolutePath(ParameterSubstitutor.substitute(server.getLogs()), new File(source!= null ? source: ".")));
+    String logs = substitute(server.getLogs(), ConfigDigests.LOGS, substitutions, templates);
+    server.setLogs(getAbsolutePath(logs, new File(source!= null ? source: ".")));
+    if (!server.getLogs().equals(logs)) {
+      // relative to the directory of the configuration file, which differs between members
+      templates.putIfAbsent(ConfigDigests.LOGS, logs);
+    }
   }
 
   private static String getAbsolutePath(String substituted, File directoryLoadedFrom) {
@@ -197,7 +292,7 @@ public class TCConfigurationParser {
     return out.toPath().normalize().toString();
   }
 
-  private static void initializeTsaGroupPort(Server server) {
+  private static void initializeTsaGroupPort(Server server, Map<String, String> templates) {
     if (server.getTsaGroupPort() == null) {
       BindPort l2GrpPort = new BindPort();
       server.setTsaGroupPort(l2GrpPort);
@@ -205,12 +300,14 @@ public class TCConfigurationParser {
       int defaultGroupPort = ((tempGroupPort <= MAX_PORTNUMBER) ? (tempGroupPort) : (tempGroupPort % MAX_PORTNUMBER) + MIN_PORTNUMBER);
       l2GrpPort.setValue(defaultGroupPort);
       l2GrpPort.setBind(server.getBind());
+      inheritBindTemplate(templates, ConfigDigests.TSA_GROUP_PORT_BIND);
     } else if (server.getTsaGroupPort().getBind() == null) {
       server.getTsaGroupPort().setBind(server.getBind());
+      inheritBindTemplate(templates, ConfigDigests.TSA_GROUP_PORT_BIND);
     }
   }
 
-  private static void initializeNameAndHost(Server server) {
+  private static void initializeNameAndHost(Server server, SubstitutionContext substitutions, Map<String, String> templates) {
     if (server.getHost() == null || server.getHost().trim().length() == 0) {
       if (server.getName() == null) {
         server.setHost("%i");
@@ -225,42 +322,168 @@ public class TCConfigurationParser {
     }
 
     // CDV-77: add parameter expansion to the <server> attributes ('host' and 'name')
-    server.setHost(ParameterSubstitutor.substitute(server.getHost()));
-    server.setName(ParameterSubstitutor.substitute(server.getName()));
+    server.setHost(substitute(server.getHost(), ConfigDigests.HOST, substitutions, templates));
+    server.setName(substitute(server.getName(), ConfigDigests.NAME, substitutions, templates));
   }
-  private static void setDefaultBind(Server s) {
+  private static void setDefaultBind(Server s, SubstitutionContext substitutions, Map<String, String> templates) {
     if (s.getBind() == null || s.getBind().trim().length() == 0) {
       s.setBind(WILDCARD_IP);
     }
-    s.setBind(ParameterSubstitutor.substitute(s.getBind()));
+    s.setBind(substitute(s.getBind(), ConfigDigests.BIND, substitutions, templates));
   }
 
-  private static TcConfiguration convert(InputStream in, String path, ClassLoader loader) throws IOException, SAXException {
-    byte[] data = new byte[in.available()];
-    in.read(data);
-    in.close();
-    ByteArrayInputStream bais = new ByteArrayInputStream(data);
-
-    return parseStream(bais, path, loader);
+  private static TcConfiguration parse(InputStream in, String source, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    try (InputStream stream = in) {
+      return parseStream(new InputSource(stream), source, loader, options);
+    }
   }
-  
+
   public static TcConfiguration parse(File f)  throws IOException, SAXException {
     return parse(f, Thread.currentThread().getContextClassLoader());
   }
 
   public static TcConfiguration parse(File file, ClassLoader loader) throws IOException, SAXException {
-    try (FileInputStream in = new FileInputStream(file)) {
-      return convert(in, file.getParent(), loader);
+    return parse(file, loader, ParseOptions.defaults());
+  }
+
+  public static TcConfiguration parse(File file, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parse(file.toPath(), loader, options);
+  }
+
+  public static TcConfiguration parse(Path path) throws IOException, SAXException {
+    return parse(path, Thread.currentThread().getContextClassLoader());
+  }
+
+  public static TcConfiguration parse(Path path, ClassLoader loader) throws IOException, SAXException {
+    return parse(path, loader, ParseOptions.defaults());
+  }
+
+  public static TcConfiguration parse(Path path, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parse(path, loader, options, null);
+  }
+
+  private static TcConfiguration parse(Path path, ClassLoader loader, ParseOptions options, Collection<SAXParseException> errors) throws IOException, SAXException {
+    Path parent = path.getParent();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return parse(channel, parent == null ? null : parent.toString(), loader, options, errors);
     }
   }
-  
+
+  public static List<ParseResult> parseAll(Collection<Path> paths) {
+    return parseAll(paths, Thread.currentThread().getContextClassLoader(), ParseOptions.defaults(),
+                    Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Parses many configuration files, sharing the compiled schema and the plugin parsers between them. Files are parsed
+   * in parallel by at most {@code parallelism} threads, and a file that fails to parse does not stop the others.
+   *
+   * @return a result per file, in the order of {@code paths}
+   */
+  public static List<ParseResult> parseAll(Collection<Path> paths, ClassLoader loader, ParseOptions options, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    List<Path> files = new ArrayList<>(paths);
+    if (files.isEmpty()) {
+      return Collections.emptyList();
+    }
+    try {
+      // compile the schema once up front rather than in every worker at the same time
+      PluginParserRegistry.forLoader(loader).getSchema();
+    } catch (IOException | SAXException | RuntimeException e) {
+      List<ParseResult> results = new ArrayList<>(files.size());
+      for (Path path : files) {
+        results.add(new ParseResult(path, Collections.emptyList(), e));
+      }
+      return results;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()), runnable -> {
+      Thread thread = new Thread(runnable, "tc-config-batch-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<CompletableFuture<ParseResult>> futures = new ArrayList<>(files.size());
+      for (Path path : files) {
+        futures.add(CompletableFuture.supplyAsync(() -> parseForBatch(path, loader, options), executor));
+      }
+      List<ParseResult> results = new ArrayList<>(files.size());
+      for (CompletableFuture<ParseResult> future : futures) {
+        results.add(future.join());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static ParseResult parseForBatch(Path path, ClassLoader loader, ParseOptions options) {
+    List<SAXParseException> errors = new ArrayList<>();
+    try {
+      return new ParseResult(path, parse(path, loader, options, errors));
+    } catch (IOException | SAXException | RuntimeException e) {
+      return new ParseResult(path, errors, e);
+    }
+  }
+
+  public static TcConfiguration parse(FileChannel channel, String source) throws IOException, SAXException {
+    return parse(channel, source, Thread.currentThread().getContextClassLoader());
+  }
+
+  public static TcConfiguration parse(FileChannel channel, String source, ClassLoader loader) throws IOException, SAXException {
+    return parse(channel, source, loader, ParseOptions.defaults());
+  }
+
+  /**
+   * Parses the channel's content from its current position to its end. The content is read onto the heap, or
+   * memory-mapped if {@link ParseOptions#isMemoryMapped()}; the channel is left open and its position unchanged.
+   *
+   * @see ParseOptions#getCacheDirectory()
+   */
+  public static TcConfiguration parse(FileChannel channel, String source, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parse(channel, source, loader, options, null);
+  }
+
+  private static TcConfiguration parse(FileChannel channel, String source, ClassLoader loader, ParseOptions options,
+                                       Collection<SAXParseException> errors) throws IOException, SAXException {
+    long position = channel.position();
+    long size = channel.size() - position;
+    if (size > Integer.MAX_VALUE) {
+      throw new TCConfigurationSetupException("Configuration is too large: " + size + " bytes");
+    }
+    ByteBuffer content = options.isMemoryMapped() ? channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+                                                  : read(channel, position, (int) size);
+    if (options.getCacheDirectory() != null) {
+      return ParseCache.parse(options.getCacheDirectory(), content, source, loader, options,
+          () -> parseStream(new InputSource(new ByteBufferInputStream(content.duplicate())), source, loader, options, errors));
+    }
+    return parseStream(new InputSource(new ByteBufferInputStream(content)), source, loader, options, errors);
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+    ByteBuffer content = ByteBuffer.allocate(size);
+    while (content.hasRemaining()) {
+      if (channel.read(content, position + content.position()) < 0) {
+        // truncated since its size was taken: parse what is there
+        break;
+      }
+    }
+    content.flip();
+    return content;
+  }
+
   public static TcConfiguration parse(String xmlText) throws IOException, SAXException {
     return parse(xmlText, Thread.currentThread().getContextClassLoader());
   }
 
-  @edu.umd.cs.findbugs.annotations.SuppressFBWarnings("DM_DEFAULT_ENCODING")
   public static TcConfiguration parse(String xmlText, ClassLoader loader) throws IOException, SAXException {
-    return convert(new ByteArrayInputStream(xmlText.getBytes()), null, loader);
+    return parse(xmlText, loader, ParseOptions.defaults());
+  }
+
+  public static TcConfiguration parse(String xmlText, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parseStream(new InputSource(new StringReader(xmlText)), null, loader, options);
   }
   
   public static TcConfiguration parse(InputStream stream) throws IOException, SAXException {
@@ -268,7 +491,11 @@ public class TCConfigurationParser {
   }
   
   public static TcConfiguration parse(InputStream stream, ClassLoader loader) throws IOException, SAXException {
-    return convert(stream, null, loader);
+    return parse(stream, loader, ParseOptions.defaults());
+  }
+
+  public static TcConfiguration parse(InputStream stream, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parse(stream, null, loader, options);
   }
   
   public static TcConfiguration parse(URL stream) throws IOException, SAXException {
@@ -276,27 +503,47 @@ public class TCConfigurationParser {
   }
   
   public static TcConfiguration parse(URL url, ClassLoader loader) throws IOException, SAXException {
-    return convert(url.openStream(), url.getPath(), loader);
+    return parse(url, loader, ParseOptions.defaults());
+  }
+
+  public static TcConfiguration parse(URL url, ClassLoader loader, ParseOptions options) throws IOException, SAXException {
+    return parse(url.openStream(), url.getPath(), loader, options);
   }
   
   public static TcConfiguration parse(InputStream in, Collection<SAXParseException> errors, String source) throws IOException, SAXException {
     return parse(in, errors, source, Thread.currentThread().getContextClassLoader());
   }
   
+  /**
+   * Parses the stream, adding the validation errors of an invalid document to {@code errors} before failing.
+   */
   public static TcConfiguration parse(InputStream in, Collection<SAXParseException> errors, String source, ClassLoader loader) throws IOException, SAXException {
-    return parseStream(in, source, loader);
+    return parseStream(new InputSource(in), source, loader, ParseOptions.defaults(), errors);
   }
 
   public static ConfigValidator getValidator(URI namespace) {
-    ServiceConfigParser parserObject = serviceParsers.get(namespace);
-    if (parserObject != null) {
-      return parserObject.getConfigValidator();
+    ConfigValidator validator = PluginParserRegistry.getValidator(namespace, Thread.currentThread().getContextClassLoader());
+    return validator != null ? validator : PluginParserRegistry.getValidator(namespace);
+  }
+
+  public static ConfigValidator getValidator(URI namespace, ClassLoader loader) {
+    return PluginParserRegistry.forLoader(loader).getValidator(namespace);
+  }
+
+  /**
+   * Drops whitespace the validator reports as ignorable (whitespace in element-only content), matching what the
+   * DOM path does with {@link DocumentBuilderFactory#setIgnoringElementContentWhitespace(boolean)}.
+   */
+  private static class ElementContentWhitespaceFilter extends XMLFilterImpl {
+
+    ElementContentWhitespaceFilter(ContentHandler handler) {
+      setContentHandler(handler);
     }
-    ExtendedConfigParser extendedConfigParser = configParsers.get(namespace);
-    if (extendedConfigParser != null) {
-      return extendedConfigParser.getConfigValidator();
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+      //
     }
-    return null;
   }
 
   private static class CollectingErrorHandler implements ErrorHandler {
@@ -322,13 +569,4 @@ public class TCConfigurationParser {
       return Collections.unmodifiableList(errors);
     }
   }
-
-  private static ServiceLoader<ServiceConfigParser> loadServiceConfigurationParserClasses(ClassLoader loader) {
-    return ServiceLoader.load(ServiceConfigParser.class,loader);
-  }
-  
-
-  private static ServiceLoader<ExtendedConfigParser> loadConfigurationParserClasses(ClassLoader loader) {
-    return ServiceLoader.load(ExtendedConfigParser.class,loader);
-  }  
 }
@@ -16,9 +16,19 @@
  */
 package org.terracotta.config;
 
-import javax.xml.bind.JAXB;
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.terracotta.entity.ServiceProviderConfiguration;
@@ -28,37 +38,262 @@ import org.terracotta.entity.StateDumpable;
 public class TcConfiguration implements StateDumpable {
   private final TcConfig platformConfiguration;
 
-  private final List<ServiceProviderConfiguration> serviceConfigurations;
-  private final List<Object> objects;
+  private final String source;
+  private final List<PluginFragment> fragments;
+  private final Executor pluginExecutor;
+  private final Supplier<String> schemaKey;
+  private final Map<String, String> bindingDigests;
+  private final List<Map<String, String>> hostTemplates;
+  private final ParseRecorder recorder;
+
+  private volatile List<ServiceProviderConfiguration> serviceConfigurations;
+  private volatile List<Object> objects;
+
+  private final ConcurrentMap<Class<?>, List<?>> extendedConfigurationsByType = new ConcurrentHashMap<>();
+  private volatile Map<Class<?>, List<ServiceProviderConfiguration>> serviceConfigurationsByType;
+  private volatile ConfigDigests digests;
+  private volatile PlatformConfig platform;
 
   public TcConfiguration(TcConfig platformConfiguration, String source , List<Object> objects, List<ServiceProviderConfiguration> serviceConfigurations) {
     this.platformConfiguration = platformConfiguration;
+    this.source = source;
     this.serviceConfigurations = serviceConfigurations;
     this.objects = objects;
+    this.fragments = null;
+    this.pluginExecutor = null;
+    this.schemaKey = null;
+    this.bindingDigests = Collections.emptyMap();
+    this.hostTemplates = Collections.emptyList();
+    this.recorder = null;
+  }
+
+  /**
+   * A configuration produced by {@link TCConfigurationParser}. Unless {@code lazy}, the plugin fragments must have
+   * been parsed already; otherwise they are parsed on first access.
+   *
+   * @param schemaKey supplies {@link #getSchemaKey()}, only asked for when the configuration is snapshotted
+   * @param hostTemplates see {@link #getHostTemplates()}
+   */
+  TcConfiguration(TcConfig platformConfiguration, String source, List<PluginFragment> fragments, Executor pluginExecutor,
+                  boolean lazy, Supplier<String> schemaKey, Map<String, String> bindingDigests,
+                  List<Map<String, String>> hostTemplates, ParseRecorder recorder) {
+    this.platformConfiguration = platformConfiguration;
+    this.source = source;
+    this.fragments = fragments;
+    this.pluginExecutor = pluginExecutor;
+    this.schemaKey = schemaKey;
+    this.bindingDigests = bindingDigests;
+    this.hostTemplates = hostTemplates;
+    this.recorder = recorder;
+    if (!lazy) {
+      List<ServiceProviderConfiguration> services = new ArrayList<>();
+      List<Object> configs = new ArrayList<>();
+      for (PluginFragment fragment : fragments) {
+        if (fragment.isService()) {
+          services.add((ServiceProviderConfiguration) fragment.get());
+        } else {
+          configs.add(fragment.get());
+        }
+      }
+      this.serviceConfigurations = services;
+      this.objects = configs;
+    }
   }
 
   public TcConfig getPlatformConfiguration() {
     return platformConfiguration;
   }
 
+  /**
+   * An immutable, compact view of the platform configuration with defaults applied. It is built on first call, after
+   * which changes to {@link #getPlatformConfiguration()} are no longer reflected.
+   */
+  public PlatformConfig getPlatform() {
+    PlatformConfig current = platform;
+    if (current == null) {
+      current = PlatformConfig.of(platformConfiguration);
+      platform = current;
+    }
+    return current;
+  }
+
   public List<ServiceProviderConfiguration> getServiceConfigurations() {
-    return this.serviceConfigurations;
+    List<ServiceProviderConfiguration> configurations = this.serviceConfigurations;
+    if (configurations == null) {
+      List<PluginFragment> services = fragments.stream().filter(PluginFragment::isService).collect(Collectors.toList());
+      PluginFragment.parseAll(services, pluginExecutor);
+      configurations = services.stream().map(f -> (ServiceProviderConfiguration) f.get()).collect(Collectors.toList());
+      this.serviceConfigurations = configurations;
+    }
+    return configurations;
   }
   
+  /**
+   * The service configurations whose {@link ServiceProviderConfiguration#getServiceProviderType() provider type} is
+   * exactly the given type, in document order.
+   *
+   * @return an immutable list, shared between calls
+   */
+  public List<ServiceProviderConfiguration> getServiceConfigurations(Class<?> serviceProviderType) {
+    Map<Class<?>, List<ServiceProviderConfiguration>> index = this.serviceConfigurationsByType;
+    if (index == null) {
+      Map<Class<?>, List<ServiceProviderConfiguration>> byType = new HashMap<>();
+      for (ServiceProviderConfiguration configuration : getServiceConfigurations()) {
+        byType.computeIfAbsent(configuration.getServiceProviderType(), t -> new ArrayList<>()).add(configuration);
+      }
+      byType.replaceAll((type, configurations) -> Collections.unmodifiableList(configurations));
+      index = byType;
+      this.serviceConfigurationsByType = index;
+    }
+    return index.getOrDefault(serviceProviderType, Collections.emptyList());
+  }
+
+  /**
+   * The extended configuration objects that are instances of the given type, in document order. Results are computed
+   * once per type.
+   *
+   * @return an immutable list, shared between calls
+   */
+  @SuppressWarnings("unchecked")
   public <T> List<T> getExtendedConfiguration(Class<T> type) {
-    return objects.stream().filter(o->type.isInstance(o)).map(o->type.cast(o)).collect(Collectors.toList());
+    List<T> configurations = (List<T>) extendedConfigurationsByType.get(type);
+    if (configurations == null) {
+      List<?> computed = Collections.unmodifiableList(findExtendedConfiguration(type));
+      List<?> raced = extendedConfigurationsByType.putIfAbsent(type, computed);
+      configurations = (List<T>) (raced == null ? computed : raced);
+    }
+    return configurations;
+  }
+
+  private <T> List<T> findExtendedConfiguration(Class<T> type) {
+    List<Object> configObjects = this.objects;
+    if (configObjects == null) {
+      List<PluginFragment> candidates = fragments.stream().filter(f -> !f.isService() && f.mayProduce(type)).collect(Collectors.toList());
+      PluginFragment.parseAll(candidates, pluginExecutor);
+      return candidates.stream().map(PluginFragment::get).filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+    }
+    return configObjects.stream().filter(o->type.isInstance(o)).map(o->type.cast(o)).collect(Collectors.toList());
+  }
+
+  private List<Object> getExtendedConfigurations() {
+    List<Object> configObjects = this.objects;
+    if (configObjects == null) {
+      List<PluginFragment> configs = fragments.stream().filter(f -> !f.isService()).collect(Collectors.toList());
+      PluginFragment.parseAll(configs, pluginExecutor);
+      configObjects = configs.stream().map(PluginFragment::get).collect(Collectors.toList());
+      this.objects = configObjects;
+    }
+    return configObjects;
+  }
+
+  /**
+   * A SHA-256 fingerprint of this configuration: of the platform configuration with defaults applied, and of each
+   * plugin fragment as {@linkplain org.terracotta.config.service.ServiceConfigParser#fingerprint(org.w3c.dom.Element)
+   * digested by its parser}. Configurations that differ only in the order of servers, properties or plugin fragments
+   * have the same fingerprint, and server attributes that refer to the local host identity are fingerprinted as
+   * written, so that the same document parsed on different hosts has the same fingerprint. Computed once, on first
+   * call; the configuration must not be modified afterwards.
+   *
+   * @return a fresh copy of the 32-byte fingerprint
+   */
+  public byte[] getFingerprint() {
+    return getDigests().fingerprint().clone();
+  }
+
+  /**
+   * The time spent in each phase of the parse that produced this configuration, including plugin fragments parsed
+   * lazily since.
+   *
+   * @return the parse statistics, or {@code null} if this configuration was not parsed from a document
+   */
+  public ParseStats getParseStats() {
+    return recorder == null ? null : recorder.stats();
+  }
+
+  String getSource() {
+    return source;
+  }
+
+  /**
+   * The plugin fragments with their parsers, or {@code null} if this configuration was not produced by the parser.
+   */
+  List<PluginFragment> getFragments() {
+    return fragments;
+  }
+
+  /**
+   * The {@linkplain SchemaCache#persistentKeyFor persistent identity} of the schema set the configuration was
+   * validated against.
+   */
+  String getSchemaKey() {
+    return schemaKey == null ? null : schemaKey.get();
+  }
+
+  /**
+   * The substitution parameters resolved while applying the platform defaults, each with a
+   * {@linkplain ConfigSnapshot#digestBindings(Map) digest} of its value, or {@code null} if any of them was not
+   * {@linkplain org.terracotta.config.util.TokenResolver#isDeterministic() deterministic}, in which case the
+   * configuration is never cached.
+   */
+  Map<String, String> getBindingDigests() {
+    return bindingDigests;
+  }
+
+  /**
+   * For each server, in document order, the server attributes that referred to the local host identity before
+   * substitution, as written, keyed by the {@link ConfigDigests} attribute names, together with a relative logs
+   * directory as substituted, before it was resolved against the directory of the configuration file. Servers without
+   * any have an empty map; the list is empty if this configuration was not produced by the parser.
+   */
+  List<Map<String, String>> getHostTemplates() {
+    return hostTemplates;
+  }
+
+  ConfigDigests getDigests() {
+    ConfigDigests current = digests;
+    if (current == null) {
+      current = new ConfigDigests(platformConfiguration, fragments, hostTemplates);
+      digests = current;
+    }
+    return current;
   }
 
   @Override
   public String toString() {
     StringWriter sw = new StringWriter();
-    JAXB.marshal(platformConfiguration, sw);
+    try {
+      Marshaller m = PlatformJaxb.borrowMarshaller();
+      try {
+        m.marshal(platformConfiguration, sw);
+      } finally {
+        PlatformJaxb.release(m);
+      }
+    } catch (JAXBException e) {
+      throw new DataBindingException(e);
+    }
     return sw.toString();
   }
 
   @Override
   public void addStateTo(final StateDumpCollector stateDumpCollector) {
-    for (Object config : objects){
+    ParseStats stats = getParseStats();
+    if (stats != null) {
+      StateDumpCollector parse = stateDumpCollector.subStateDumpCollector("parse");
+      parse.addState("source", String.valueOf(stats.getSource()));
+      parse.addState("documentBytes", stats.getDocumentBytes());
+      parse.addState("totalNanos", stats.getTotalNanos());
+      List<ParseStats.Timing> timings = stats.getTimings();
+      for (int i = 0; i < timings.size(); i++) {
+        ParseStats.Timing timing = timings.get(i);
+        // numbered, as plugin namespaces can repeat
+        StateDumpCollector entry = parse.subStateDumpCollector(i + ":" + timing.getPhase()
+                                                               + (timing.getNamespace() == null ? "" : " " + timing.getNamespace()));
+        entry.addState("nanos", timing.getNanos());
+        entry.addState("bytes", timing.getBytes());
+        entry.addState("allocatedBytes", timing.getAllocatedBytes());
+      }
+    }
+    for (Object config : getExtendedConfigurations()){
       if(config instanceof StateDumpable) {
         ((StateDumpable)config).addStateTo(stateDumpCollector.subStateDumpCollector(config.getClass().getName()));
       }
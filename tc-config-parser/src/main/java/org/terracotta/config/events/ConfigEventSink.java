@@ -0,0 +1,53 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.events;
+
+import org.terracotta.config.ParsePhase;
+
+/**
+ * Receives the timings of configuration loading, to emit them as profiling events. Implementations are discovered with
+ * {@link java.util.ServiceLoader} through the class loader of this library, and the first one found is used; the
+ * {@code tc-config-jfr} module provides one emitting Flight Recorder events.
+ * <p>
+ * Each {@code begin} method returns a token that is handed back to the matching {@code commit}, or {@code null} if
+ * nothing is recorded, in which case the {@code commit} is skipped. Implementations are called from any thread.
+ */
+public interface ConfigEventSink {
+
+  Object beginParse();
+
+  /**
+   * @param bytes the document size, or {@code -1} if unknown
+   */
+  void commitParse(Object begun, String source, long bytes);
+
+  Object beginPhase(ParsePhase phase);
+
+  /**
+   * @param namespace the plugin namespace, for {@link ParsePhase#PLUGIN}
+   * @param parser the plugin parser class, for {@link ParsePhase#PLUGIN}
+   * @param bytes the document bytes read in the phase, or {@code -1}
+   */
+  void commitPhase(Object begun, String source, ParsePhase phase, String namespace, Class<?> parser, long bytes);
+
+  Object beginHostResolution();
+
+  /**
+   * @param value the resolved value, or {@code null} if the lookup failed
+   */
+  void commitHostResolution(Object begun, String lookup, String value);
+}
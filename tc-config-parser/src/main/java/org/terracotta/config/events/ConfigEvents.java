@@ -0,0 +1,77 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.config.ParsePhase;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link ConfigEventSink} the parser reports to. Without one on the class path, {@link #AVAILABLE} is
+ * {@code false} and the parser never calls the other methods, so loading a configuration costs nothing extra.
+ */
+public final class ConfigEvents {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConfigEvents.class);
+
+  private static final ConfigEventSink SINK = discover();
+
+  public static final boolean AVAILABLE = SINK != null;
+
+  private ConfigEvents() {
+    //
+  }
+
+  private static ConfigEventSink discover() {
+    try {
+      Iterator<ConfigEventSink> sinks = ServiceLoader.load(ConfigEventSink.class, ConfigEvents.class.getClassLoader()).iterator();
+      return sinks.hasNext() ? sinks.next() : null;
+    } catch (ServiceConfigurationError | LinkageError e) {
+      // for instance the Flight Recorder sink on a JVM without Flight Recorder
+      LOGGER.debug("No configuration event sink: {}", e.toString());
+      return null;
+    }
+  }
+
+  public static Object beginParse() {
+    return SINK.beginParse();
+  }
+
+  public static void commitParse(Object begun, String source, long bytes) {
+    SINK.commitParse(begun, source, bytes);
+  }
+
+  public static Object beginPhase(ParsePhase phase) {
+    return SINK.beginPhase(phase);
+  }
+
+  public static void commitPhase(Object begun, String source, ParsePhase phase, String namespace, Class<?> parser, long bytes) {
+    SINK.commitPhase(begun, source, phase, namespace, parser, bytes);
+  }
+
+  public static Object beginHostResolution() {
+    return SINK.beginHostResolution();
+  }
+
+  public static void commitHostResolution(Object begun, String lookup, String value) {
+    SINK.commitHostResolution(begun, lookup, value);
+  }
+}
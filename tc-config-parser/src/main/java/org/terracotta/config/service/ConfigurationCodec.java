@@ -0,0 +1,43 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Optional companion of a {@link ServiceConfigParser} or {@link ExtendedConfigParser}: a parser also implementing this
+ * interface lets its parsed configurations be stored in, and restored from, a configuration snapshot without parsing
+ * the XML fragment again.
+ * <p>
+ * {@link #decode(DataInput, String)} must restore a configuration equivalent to the one passed to
+ * {@link #encode(Object, DataOutput)}. A parser changing its encoding should change its
+ * {@linkplain ServiceConfigParser#getXmlSchemaVersion() schema version} too, so that existing snapshots are discarded.
+ */
+public interface ConfigurationCodec {
+
+  /**
+   * @param configuration a configuration returned by this parser's {@code parse} method
+   */
+  void encode(Object configuration, DataOutput out) throws IOException;
+
+  /**
+   * @param source the source the configuration was originally parsed from, as passed to {@code parse}
+   */
+  Object decode(DataInput in, String source) throws IOException;
+}
@@ -16,6 +16,7 @@
  */
 package org.terracotta.config.service;
 
+import org.terracotta.config.util.CanonicalDigest;
 import org.w3c.dom.Element;
 
 import javax.xml.transform.Source;
@@ -36,6 +37,17 @@ public interface ExtendedConfigParser {
    */
   Source getXmlSchema() throws IOException;
 
+  /**
+   * An identity or version hint for the schema returned by {@link #getXmlSchema()}. Compiled schemas are cached per
+   * class loader and set of plugin namespaces, so a parser whose schema can change without its namespace changing
+   * should return a value that changes along with it.
+   *
+   * @return schema version hint, or {@code null} if the namespace alone identifies the schema
+   */
+  default String getXmlSchemaVersion() {
+    return null;
+  }
+
   /**
    * The name space which is handled by the service configuration parser.
    * @return namespace
@@ -44,11 +56,47 @@ public interface ExtendedConfigParser {
 
   /**
    * Parse method which handles converting the XMLElement into a particular service configuration for a particular service.
+   * <p>
+   * One parser instance serves every configuration parsed through its class loader. Unless it declares itself
+   * {@linkplain #isThreadSafe() thread-safe}, the configuration parser never calls into the same instance from two
+   * threads at once.
    * @param fragment element to be parsed
    * @return service configuration
    */
    Object parse(Element fragment, String source);
 
+  /**
+   * Whether {@link #parse(Element, String)} and {@link #fingerprint(Element)} may be called from several threads at
+   * once. Fragments of a thread-safe parser may be parsed in parallel.
+   *
+   * @return {@code true} if this parser is thread-safe; {@code false} by default
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * A digest identifying the configuration a fragment denotes, used in {@code TcConfiguration#getFingerprint()}.
+   * Fragments with equal fingerprints must parse to equivalent configurations. The default digests the canonical
+   * form of the fragment; parsers can override it to ignore content that does not affect the parsed configuration.
+   *
+   * @param fragment element to be fingerprinted
+   * @return a {@link CanonicalDigest#LENGTH}-byte digest
+   */
+  default byte[] fingerprint(Element fragment) {
+    return CanonicalDigest.of(fragment);
+  }
+
+  /**
+   * The type of the objects returned by {@link #parse(Element, String)}. When parsing is deferred, fragments whose
+   * parser declares a type that cannot match a requested type are not parsed at all.
+   *
+   * @return the type of the parsed configuration objects, or {@code null} if not known up front
+   */
+  default Class<?> getConfigType() {
+    return null;
+  }
+
   /**
    * Get the validator for the XMLElement
    *
@@ -0,0 +1,148 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.terracotta.config.TCConfigurationSetupException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * The parameters {@link ParameterSubstitutor} has always supported, plus the built-in named resolvers.
+ */
+enum BuiltInTokens implements TokenResolver {
+  UNIQUE_TEMP_DIRECTORY("d") {
+    @Override
+    public String resolve(String argument) {
+      return ParameterSubstitutor.getUniqueTempDirectory();
+    }
+  },
+  DATESTAMP("D") {
+    @Override
+    public String resolve(String argument) {
+      return ParameterSubstitutor.getDatestamp();
+    }
+  },
+  HOST_NAME("h") {
+    @Override
+    public String resolve(String argument) {
+      return HostIdentity.getHostName();
+    }
+  },
+  CANONICAL_HOST_NAME("c") {
+    @Override
+    public String resolve(String argument) {
+      return HostIdentity.getCanonicalHostName();
+    }
+  },
+  IP_ADDRESS("i") {
+    @Override
+    public String resolve(String argument) {
+      return HostIdentity.getIpAddress();
+    }
+  },
+  USER_HOME("H", "user.home"),
+  USER_NAME("n", "user.name"),
+  OS_NAME("o", "os.name"),
+  OS_ARCH("a", "os.arch"),
+  OS_VERSION("v", "os.version"),
+  TEMP_DIRECTORY("t", "java.io.tmpdir"),
+
+  /**
+   * {@code %{sysprop:name}}, and the {@code %(name)} form.
+   */
+  SYSTEM_PROPERTY("sysprop") {
+    @Override
+    public String resolve(String argument) {
+      return argument == null ? null : System.getProperty(argument);
+    }
+  },
+  /**
+   * {@code %{env:NAME}}: an environment variable.
+   */
+  ENVIRONMENT("env") {
+    @Override
+    public String resolve(String argument) {
+      return argument == null ? null : System.getenv(argument);
+    }
+  },
+  /**
+   * {@code %{file:path}}: the content of a UTF-8 file, without leading and trailing whitespace. A file that cannot be
+   * read is a configuration error rather than an unresolved parameter, as the value is most likely a secret.
+   */
+  FILE("file") {
+    @Override
+    public String resolve(String argument) {
+      if (argument == null) {
+        return null;
+      }
+      try {
+        return new String(Files.readAllBytes(Paths.get(argument)), StandardCharsets.UTF_8).trim();
+      } catch (IOException e) {
+        throw new TCConfigurationSetupException("Could not read the file of substitution parameter %{file:" + argument + "}", e);
+      }
+    }
+  };
+
+  private final String name;
+  private final String property;
+
+  BuiltInTokens(String name) {
+    this(name, null);
+  }
+
+  BuiltInTokens(String name, String property) {
+    this.name = name;
+    this.property = property;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String resolve(String argument) {
+    return System.getProperty(property);
+  }
+
+  /**
+   * All built-in parameters but {@code %d}, which creates a new directory, and {@code %D}, the current time.
+   */
+  @Override
+  public boolean isDeterministic() {
+    return this != UNIQUE_TEMP_DIRECTORY && this != DATESTAMP;
+  }
+
+  /**
+   * Whether the value is derived from the local host identity, and so differs from host to host.
+   */
+  boolean isHostDerived() {
+    return this == HOST_NAME || this == CANONICAL_HOST_NAME || this == IP_ADDRESS;
+  }
+
+  static BuiltInTokens of(char symbol) {
+    for (BuiltInTokens token : values()) {
+      if (token.name.length() == 1 && token.name.charAt(0) == symbol) {
+        return token;
+      }
+    }
+    return null;
+  }
+}
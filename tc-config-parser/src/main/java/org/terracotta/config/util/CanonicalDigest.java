@@ -0,0 +1,133 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incrementally computes a SHA-256 digest over a sequence of values, in an encoding where distinct sequences cannot
+ * collide by concatenation: every value is length-prefixed, and {@code null} is distinct from the empty string.
+ * <p>
+ * Elements are digested canonically: by namespace and local name, attributes in name order regardless of document
+ * order, child elements in document order, and text with leading and trailing whitespace removed, dropping
+ * whitespace-only text. Two fragments that differ only in prefixes, attribute order, comments or indentation therefore
+ * get the same digest.
+ */
+public final class CanonicalDigest {
+
+  public static final int LENGTH = 32;
+
+  private static final Comparator<Attr> ATTRIBUTE_ORDER = Comparator
+      .comparing((Attr a) -> a.getNamespaceURI() == null ? "" : a.getNamespaceURI())
+      .thenComparing(a -> a.getLocalName() == null ? a.getName() : a.getLocalName());
+
+  private final MessageDigest digest;
+
+  public CanonicalDigest() {
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new AssertionError(e);
+    }
+  }
+
+  public static byte[] of(Element element) {
+    return new CanonicalDigest().add(element).digest();
+  }
+
+  public CanonicalDigest add(String value) {
+    if (value == null) {
+      addLength(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      addLength(bytes.length);
+      digest.update(bytes);
+    }
+    return this;
+  }
+
+  public CanonicalDigest add(Integer value) {
+    return add(value == null ? null : value.toString());
+  }
+
+  public CanonicalDigest add(byte[] value) {
+    addLength(value.length);
+    digest.update(value);
+    return this;
+  }
+
+  public CanonicalDigest add(Element element) {
+    if (element == null) {
+      return add((String) null);
+    }
+    add(element.getNamespaceURI()).add(element.getLocalName() == null ? element.getTagName() : element.getLocalName());
+
+    NamedNodeMap attributeMap = element.getAttributes();
+    List<Attr> attributes = new ArrayList<>(attributeMap.getLength());
+    for (int i = 0; i < attributeMap.getLength(); i++) {
+      Attr attribute = (Attr) attributeMap.item(i);
+      if (!"http://www.w3.org/2000/xmlns/".equals(attribute.getNamespaceURI())) {
+        attributes.add(attribute);
+      }
+    }
+    attributes.sort(ATTRIBUTE_ORDER);
+    addLength(attributes.size());
+    for (Attr attribute : attributes) {
+      add(attribute.getNamespaceURI()).add(attribute.getLocalName() == null ? attribute.getName() : attribute.getLocalName()).add(attribute.getValue());
+    }
+
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        digest.update((byte) 'E');
+        add((Element) child);
+      } else if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+        String text = child.getNodeValue().trim();
+        if (!text.isEmpty()) {
+          digest.update((byte) 'T');
+          add(text);
+        }
+      }
+    }
+    digest.update((byte) '/');
+    return this;
+  }
+
+  /**
+   * Completes the digest; this instance must not be used afterwards.
+   */
+  public byte[] digest() {
+    return digest.digest();
+  }
+
+  private void addLength(int length) {
+    digest.update((byte) (length >>> 24));
+    digest.update((byte) (length >>> 16));
+    digest.update((byte) (length >>> 8));
+    digest.update((byte) length);
+  }
+}
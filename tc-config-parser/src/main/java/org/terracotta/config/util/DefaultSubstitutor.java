@@ -19,9 +19,13 @@ package org.terracotta.config.util;
 import org.terracotta.config.TCConfigurationSetupException;
 
 import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlElement;
@@ -34,8 +38,10 @@ import javax.xml.bind.annotation.XmlValue;
  * <ol>
  * <li>Is recursive -- can trip stack overflow
  * <li>Assumes no cycles in the graph -- I'm pretty sure this is true of JAXB object graphs
- * <li>Could cache reflective information about types instead of discovering on every walk
  * </ol>
+ * Reflective information about each type is discovered once and cached as a {@link Plan} of method handles, with the
+ * default values already converted, so that walking an object only costs the getter calls and the writes of missing
+ * defaults.
  */
 
 /*
@@ -43,66 +49,220 @@ import javax.xml.bind.annotation.XmlValue;
  */
 public class DefaultSubstitutor {
 
+  private static final ClassValue<Plan> PLANS = new ClassValue<Plan>() {
+    @Override
+    protected Plan computeValue(Class<?> type) {
+      return Plan.of(type);
+    }
+  };
+
   private DefaultSubstitutor() {
     //
   }
 
   public static void applyDefaults(Object root) {
-    Class<?> clazz = root.getClass();
-    //don't process the internal types, these will be mostly service configuration which will be processed by specific
-    //service.
-    if (clazz.getAnnotation(XmlType.class) == null) {
-      return;
+    PLANS.get(root.getClass()).apply(root);
+  }
+
+  /**
+   * The precomputed walk of one type: for every zero-arg method, how to read it, what to do when it returns
+   * {@code null}, and whether its values need walking in turn.
+   */
+  private static final class Plan {
+
+    private static final Plan EMPTY = new Plan(new Accessor[0]);
+
+    private final Accessor[] accessors;
+
+    private Plan(Accessor[] accessors) {
+      this.accessors = accessors;
+    }
+
+    static Plan of(Class<?> clazz) {
+      //don't process the internal types, these will be mostly service configuration which will be processed by specific
+      //service.
+      if (clazz.getAnnotation(XmlType.class) == null) {
+        return EMPTY;
+      }
+      List<Accessor> accessors = new ArrayList<>();
+      for (Method method : clazz.getDeclaredMethods()) {
+        if (method.getParameterTypes().length >= 1) {
+          continue;
+        }
+        accessors.add(new Accessor(method));
+      }
+      return new Plan(accessors.toArray(new Accessor[accessors.size()]));
     }
-    for (Method method : clazz.getDeclaredMethods()) {
-      if (method.getParameterTypes().length >= 1) {
-        continue;
+
+    void apply(Object root) {
+      for (Accessor accessor : accessors) {
+        accessor.apply(root);
+      }
+    }
+  }
+
+  private static final class Accessor {
+
+    private final Method method;
+    private final MethodHandle getter;
+    private final DefaultAction onNull;
+    private final Traversal traversal;
+
+    Accessor(Method method) {
+      this.method = method;
+      this.getter = getterFor(method);
+      this.onNull = defaultActionFor(method);
+      Class<?> returnType = method.getReturnType();
+      if (typeFor(returnType) != null) {
+        this.traversal = Traversal.NONE;
+      } else if (List.class.isAssignableFrom(returnType)) {
+        this.traversal = Traversal.LIST;
+      } else {
+        this.traversal = Traversal.OBJECT;
       }
-      Object value = methodInvoke(root, method);
+    }
+
+    void apply(Object root) {
+      Object value = get(root);
       if (value == null) {
-        Field field = fieldFor(method);
-        String def = getDefaultFor(field);
-        if (def != null) {
-          Type type = typeFor(method.getReturnType());
-          if (type != null) {
-            setField(root, field, type, def);
-          } else {
-            populateNonPrimitiveField(root, field, def);
-          }
+        if (onNull != null) {
+          onNull.apply(root);
         }
       } else {
-        if (value instanceof List) {
-          for (Object e : ((List<?>) value)) {
-            if (typeFor(e.getClass()) == null) {
-              applyDefaults(e);
-            }
+        traversal.walk(value);
+      }
+    }
+
+    private Object get(Object obj) {
+      if (getter == null) {
+        throw new TCConfigurationSetupException(method.getDeclaringClass().getName() + ":" + method.getName(),
+            new IllegalAccessException(method.toString()));
+      }
+      try {
+        return getter.invokeExact(obj);
+      } catch (Error | TCConfigurationSetupException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new TCConfigurationSetupException(method.getDeclaringClass().getName() + ":" + method.getName(), e);
+      } catch (Throwable t) {
+        throw new TCConfigurationSetupException(method.getDeclaringClass().getName() + ":" + method.getName(), new Exception(t));
+      }
+    }
+
+    private static MethodHandle getterFor(Method method) {
+      try {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+          method.setAccessible(true);
+        }
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+          handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asType(MethodType.methodType(Object.class, Object.class));
+      } catch (IllegalAccessException | RuntimeException e) {
+        return null;
+      }
+    }
+  }
+
+  private enum Traversal {
+    NONE {
+      @Override
+      void walk(Object value) {
+        //
+      }
+    },
+    LIST {
+      @Override
+      void walk(Object value) {
+        for (Object e : ((List<?>) value)) {
+          if (typeFor(e.getClass()) == null) {
+            applyDefaults(e);
           }
-        } else if (typeFor(value.getClass()) == null) {
+        }
+      }
+    },
+    OBJECT {
+      @Override
+      void walk(Object value) {
+        if (typeFor(value.getClass()) == null) {
           applyDefaults(value);
         }
       }
+    };
+
+    abstract void walk(Object value);
+  }
+
+  @FunctionalInterface
+  private interface DefaultAction {
+    void apply(Object target);
+  }
+
+  /**
+   * Resolves what to do when {@code method} returns {@code null}. Failures to resolve are deferred to the first time the
+   * action is needed, since many getters never return {@code null}.
+   */
+  private static DefaultAction defaultActionFor(Method method) {
+    try {
+      Field field = fieldFor(method);
+      String def = getDefaultFor(field);
+      if (def == null) {
+        return null;
+      }
+      Type type = typeFor(method.getReturnType());
+      if (type != null) {
+        return simpleDefault(field, type.valueFor(def));
+      } else {
+        return nonPrimitiveDefault(field, def);
+      }
+    } catch (RuntimeException e) {
+      return target -> {
+        throw e;
+      };
     }
   }
 
-  private static void populateNonPrimitiveField(Object obj, Field field, String def) {
+  private static DefaultAction simpleDefault(Field field, Object value) {
+    MethodHandle setter = setterFor(field);
+    return target -> invokeSetter(setter, target, value);
+  }
+
+  private static DefaultAction nonPrimitiveDefault(Field field, String def) {
     Class<?> fieldType = field.getType();
 
     Field valueField = valueFieldFor(fieldType);
     Type type = typeFor(valueField.getType());
     if (type == null) { throw new RuntimeException("Cannot handle non-primitive value field: " + valueField); }
 
-    Object value = newInstanceWithDefaults(fieldType);
+    Object converted = type.valueFor(def);
+    MethodHandle valueSetter = setterFor(valueField);
+    MethodHandle setter = setterFor(field);
+    return target -> {
+      Object value = newInstanceWithDefaults(fieldType);
+      invokeSetter(valueSetter, value, converted);
+      invokeSetter(setter, target, value);
+    };
+  }
 
-    field.setAccessible(true);
-    valueField.setAccessible(true);
+  private static MethodHandle setterFor(Field field) {
     try {
-      valueField.set(value, type.valueFor(def));
-      field.set(obj, value);
-    } catch (IllegalArgumentException | IllegalAccessException e) {
+      field.setAccessible(true);
+      return MethodHandles.lookup().unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+    } catch (IllegalAccessException e) {
       throw new TCConfigurationSetupException(e);
     }
   }
 
+  private static void invokeSetter(MethodHandle setter, Object target, Object value) {
+    try {
+      setter.invokeExact(target, value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
 
   private static <T> T newInstanceWithDefaults(Class<T> type) {
     T instance;
@@ -126,15 +286,6 @@ public class DefaultSubstitutor {
 
   }
 
-  private static void setField(Object obj, Field field, Type type, String value) {
-    try {
-      field.setAccessible(true);
-      field.set(obj, type.valueFor(value));
-    } catch (SecurityException | IllegalArgumentException | IllegalAccessException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
   private static String getDefaultFor(Field field) {
     for (XmlElement xmlElement : field.getDeclaredAnnotationsByType(XmlElement.class)) {
       String def = xmlElement.defaultValue();
@@ -160,16 +311,6 @@ public class DefaultSubstitutor {
     }
   }
 
-  private static Object methodInvoke(Object obj, Method method) {
-    if (method.getParameterTypes().length != 0) { throw new RuntimeException("Expecting zero arg method: " + method); }
-
-    try {
-      return method.invoke(obj);
-    } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-      throw new TCConfigurationSetupException(method.getDeclaringClass().getName() + ":" + method.getName(), e);
-    }
-  }
-
   private static Type typeFor(Class<?> type) {
     for (Type t : Type.values()) {
       if (t.matches(type)) { return t; }
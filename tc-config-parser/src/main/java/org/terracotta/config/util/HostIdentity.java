@@ -0,0 +1,239 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terracotta.config.events.ConfigEvents;
+
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The local host's name, canonical name and IP address, each looked up once per process.
+ * <p>
+ * Looking these up can involve (reverse) DNS queries, which can take very long on badly configured hosts. The three
+ * lookups therefore run concurrently in the background, starting with {@link #startResolution()} (called when a
+ * {@link SubstitutionTemplate} referring to the host is compiled) or the first request, and are bounded by a deadline
+ * counted from that start: {@value #TIMEOUT_PROPERTY} milliseconds, 5 seconds
+ * by default. A lookup that fails or is still running at the deadline falls back to, in order:
+ * <ol>
+ *   <li>the address of a local network interface, preferring site-local addresses;</li>
+ *   <li>the loopback address.</li>
+ * </ol>
+ * Host names fall back to the textual form of that address. Once settled, a value never changes, even if its lookup
+ * completes later on, so that every configuration substituted in this process sees the same identity. Callers wanting
+ * the late result ask for it with {@link #refresh()}.
+ */
+public final class HostIdentity {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HostIdentity.class);
+
+  public static final String TIMEOUT_PROPERTY = "org.terracotta.config.host-resolution-timeout";
+  private static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+  private static final Executor RESOLVER_THREADS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "tc-config-host-resolver");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private static volatile HostResolver resolver = HostResolver.jdk();
+  private static volatile long timeoutMillis = Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+  private static volatile Resolution resolution;
+
+  private HostIdentity() {
+    //
+  }
+
+  /**
+   * Starts looking up the local host identity in the background, unless already started.
+   */
+  public static void startResolution() {
+    resolution();
+  }
+
+  public static String getHostName() {
+    return resolution().hostName.get();
+  }
+
+  public static String getCanonicalHostName() {
+    return resolution().canonicalHostName.get();
+  }
+
+  public static String getIpAddress() {
+    return resolution().ipAddress.get();
+  }
+
+  /**
+   * How long it took to settle all three values, or {@code -1} if some are still pending.
+   */
+  public static long getResolutionTimeMillis() {
+    Resolution current = resolution;
+    return current == null ? -1 : current.elapsedMillis;
+  }
+
+  /**
+   * Discards the memoized values, so that later requests settle them again against a new deadline. Lookups that are
+   * still running, or that completed after their deadline, are reused rather than started over; failed ones are
+   * retried.
+   */
+  public static synchronized void refresh() {
+    Resolution current = resolution;
+    if (current != null) {
+      resolution = new Resolution(current.resolver, timeoutMillis, current);
+    }
+  }
+
+  /**
+   * Replaces the resolver and deadline, and discards the memoized values.
+   */
+  static synchronized void configure(HostResolver hostResolver, long deadlineMillis) {
+    resolver = hostResolver;
+    timeoutMillis = deadlineMillis;
+    resolution = null;
+  }
+
+  private static Resolution resolution() {
+    Resolution current = resolution;
+    if (current == null) {
+      synchronized (HostIdentity.class) {
+        current = resolution;
+        if (current == null) {
+          current = new Resolution(resolver, timeoutMillis, null);
+          resolution = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private static final class Resolution {
+
+    private final HostResolver resolver;
+    private final long start = System.nanoTime();
+    private final long deadline;
+
+    private final Value hostName;
+    private final Value canonicalHostName;
+    private final Value ipAddress;
+
+    private volatile long elapsedMillis = -1;
+
+    /**
+     * @param previous the resolution being refreshed, whose lookups are reused unless they failed
+     */
+    Resolution(HostResolver resolver, long timeoutMillis, Resolution previous) {
+      this.resolver = resolver;
+      this.deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      this.hostName = new Value("host name", resolver::getHostName, previous == null ? null : previous.hostName);
+      this.canonicalHostName = new Value("canonical host name", resolver::getCanonicalHostName,
+                                         previous == null ? null : previous.canonicalHostName);
+      this.ipAddress = new Value("IP address", InetAddress::getHostAddress, previous == null ? null : previous.ipAddress);
+
+      CompletableFuture.allOf(hostName.settled, canonicalHostName.settled, ipAddress.settled).whenComplete((v, t) -> {
+        elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOGGER.debug("Local host identity settled in {} ms", elapsedMillis);
+      });
+    }
+
+    private String fallback() {
+      InetAddress address = null;
+      try {
+        address = resolver.getInterfaceAddress();
+      } catch (SocketException e) {
+        LOGGER.debug("Could not list the network interfaces", e);
+      }
+      return (address == null ? InetAddress.getLoopbackAddress() : address).getHostAddress();
+    }
+
+    private final class Value {
+
+      private final String description;
+      private final CompletableFuture<String> lookup;
+      /** The lookup result, or the fallback if that had to be used first. */
+      private final CompletableFuture<String> settled = new CompletableFuture<>();
+
+      Value(String description, Function<InetAddress, String> lookup, Value previous) {
+        this.description = description;
+        if (previous != null && !previous.lookup.isCompletedExceptionally()) {
+          this.lookup = previous.lookup;
+        } else {
+          this.lookup = lookUp(description, lookup);
+        }
+        this.lookup.thenAccept(value -> {
+          if (!settled.complete(value) && !value.equals(settled.join())) {
+            LOGGER.info("Resolved local {} '{}' in {} ms, after falling back to '{}', which is kept until refreshed",
+                        description, value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), settled.join());
+          }
+        });
+      }
+
+      private CompletableFuture<String> lookUp(String description, Function<InetAddress, String> lookup) {
+        return CompletableFuture.supplyAsync(() -> {
+          Object event = ConfigEvents.AVAILABLE ? ConfigEvents.beginHostResolution() : null;
+          String value = null;
+          try {
+            value = lookup.apply(resolver.getLocalHost());
+            return value;
+          } catch (UnknownHostException e) {
+            throw new CompletionException(e);
+          } finally {
+            if (event != null) {
+              ConfigEvents.commitHostResolution(event, description, value);
+            }
+          }
+        }, RESOLVER_THREADS);
+      }
+
+      String get() {
+        if (settled.isDone()) {
+          return settled.join();
+        }
+        String value;
+        try {
+          value = lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+          LOGGER.info("Resolved local {} '{}' in {} ms", description, value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+          settled.complete(value);
+          return settled.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          value = fallback();
+          LOGGER.warn("Interrupted while resolving the local {}; using {}", description, value);
+        } catch (ExecutionException e) {
+          value = fallback();
+          LOGGER.warn("Could not resolve the local {}; using {}", description, value, e.getCause());
+        } catch (TimeoutException e) {
+          value = fallback();
+          LOGGER.warn("Resolving the local {} did not complete within {} ms; using {}", description,
+                      TimeUnit.NANOSECONDS.toMillis(deadline - start), value);
+        }
+        settled.complete(value);
+        return settled.join();
+      }
+    }
+  }
+}
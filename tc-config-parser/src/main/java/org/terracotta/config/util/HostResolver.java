@@ -0,0 +1,93 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Enumeration;
+
+/**
+ * Looks up the identity of the local host for {@link HostIdentity}.
+ */
+public interface HostResolver {
+
+  /**
+   * @return the local host address, typically found by resolving the host name
+   * @throws UnknownHostException if the local host name cannot be resolved
+   */
+  InetAddress getLocalHost() throws UnknownHostException;
+
+  /**
+   * @return the host name of the address, possibly through a reverse lookup
+   */
+  default String getHostName(InetAddress address) {
+    return address.getHostName();
+  }
+
+  /**
+   * @return the fully qualified domain name of the address, possibly through a reverse lookup
+   */
+  default String getCanonicalHostName(InetAddress address) {
+    return address.getCanonicalHostName();
+  }
+
+  /**
+   * An address of a local network interface, found without any name service lookup. Used as fallback when the local
+   * host cannot be resolved in time.
+   *
+   * @return an interface address, or {@code null} if there is none besides loopback
+   * @throws SocketException if the interfaces cannot be listed
+   */
+  default InetAddress getInterfaceAddress() throws SocketException {
+    InetAddress candidate = null;
+    Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+    while (interfaces != null && interfaces.hasMoreElements()) {
+      NetworkInterface networkInterface = interfaces.nextElement();
+      if (!networkInterface.isUp() || networkInterface.isLoopback()) {
+        continue;
+      }
+      Enumeration<InetAddress> addresses = networkInterface.getInetAddresses();
+      while (addresses.hasMoreElements()) {
+        InetAddress address = addresses.nextElement();
+        if (address.isLinkLocalAddress() || address.isLoopbackAddress()) {
+          continue;
+        } else if (address.isSiteLocalAddress()) {
+          return address;
+        } else if (candidate == null) {
+          candidate = address;
+        }
+      }
+    }
+    return candidate;
+  }
+
+  /**
+   * The resolver backed by {@link InetAddress}.
+   */
+  static HostResolver jdk() {
+    return () -> {
+      try {
+        return InetAddress.getLocalHost();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // EHC-861
+        return InetAddress.getByName(null);
+      }
+    };
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * A value computed once per class loader, such as the plugins it provides, that does not keep the loader alive.
+ * <p>
+ * Loaders are held weakly. A value holding objects whose classes the loader defined would keep the loader alive
+ * through those classes, so such a value is instead attached to one of those classes, which makes it reachable
+ * exactly as long as the loader, and held here only weakly. Other values are held strongly, until their loader goes
+ * away. Lookups are lock-free.
+ *
+ * @param <V> the value type
+ */
+public final class LoaderCache<V> {
+
+  private final ConcurrentMap<LoaderKey, Object> values = new ConcurrentHashMap<>();
+  private final ReferenceQueue<ClassLoader> staleLoaders = new ReferenceQueue<>();
+  private final ClassValue<AtomicReference<Object>> attached = new ClassValue<AtomicReference<Object>>() {
+    @Override
+    protected AtomicReference<Object> computeValue(Class<?> type) {
+      return new AtomicReference<>();
+    }
+  };
+  private final Function<ClassLoader, V> compute;
+  private final Function<V, Iterable<?>> contents;
+
+  /**
+   * @param compute computes the value of a loader
+   * @param contents the objects of a value whose classes may have been defined by its loader
+   */
+  public LoaderCache(Function<ClassLoader, V> compute, Function<V, Iterable<?>> contents) {
+    this.compute = compute;
+    this.contents = contents;
+  }
+
+  public V get(ClassLoader loader) {
+    V value = lookup(loader);
+    if (value != null) {
+      return value;
+    }
+
+    Reference<? extends ClassLoader> stale;
+    while ((stale = staleLoaders.poll()) != null) {
+      values.remove(stale);
+    }
+    Object[] computed = new Object[1];
+    values.compute(new LoaderKey(loader, staleLoaders), (key, existing) -> {
+      Object current = unwrap(existing);
+      if (current != null) {
+        computed[0] = current;
+        return existing;
+      }
+      V fresh = compute.apply(loader);
+      computed[0] = fresh;
+      return hold(loader, fresh);
+    });
+    @SuppressWarnings("unchecked")
+    V result = (V) computed[0];
+    return result;
+  }
+
+  /**
+   * The value of a loader, or {@code null} if it was not computed yet.
+   */
+  public V peek(ClassLoader loader) {
+    return lookup(loader);
+  }
+
+  /**
+   * Applies the action to each value computed so far, until it returns non-null.
+   */
+  public <R> R search(Function<V, R> action) {
+    for (Object held : values.values()) {
+      @SuppressWarnings("unchecked")
+      V value = (V) unwrap(held);
+      if (value != null) {
+        R result = action.apply(value);
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  private V lookup(ClassLoader loader) {
+    @SuppressWarnings("unchecked")
+    V value = (V) unwrap(values.get(new LoaderKey(loader, null)));
+    return value;
+  }
+
+  private Object hold(ClassLoader loader, V value) {
+    for (Object content : contents.apply(value)) {
+      Class<?> type = content.getClass();
+      if (type.getClassLoader() == loader) {
+        attached.get(type).set(value);
+        return new WeakReference<>(value);
+      }
+    }
+    return value;
+  }
+
+  private static Object unwrap(Object held) {
+    return held instanceof WeakReference<?> ? ((WeakReference<?>) held).get() : held;
+  }
+
+  private static final class LoaderKey extends WeakReference<ClassLoader> {
+
+    private final int hash;
+
+    LoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+      super(loader, queue);
+      this.hash = System.identityHashCode(loader);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      } else if (obj instanceof LoaderKey) {
+        ClassLoader loader = get();
+        return loader != null && loader == ((LoaderKey) obj).get();
+      } else {
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The scope in which substitution parameters are resolved, typically one configuration parse.
+ * <p>
+ * Each parameter is resolved on first use and memoized for the lifetime of the context, so that every occurrence in
+ * the configuration gets the same value. The context records these bindings, keyed by parameter: {@code %h},
+ * {@code %(name)}, {@code %{name:argument}}.
+ * <p>
+ * Contexts returned by {@link #create()} can be shared between threads. The {@link TokenResolver}s of each class
+ * loader are discovered once and looked up without locking, without keeping the loader alive (see {@link LoaderCache}).
+ */
+public final class SubstitutionContext {
+
+  private static final LoaderCache<Map<String, TokenResolver>> RESOLVERS = new LoaderCache<>(SubstitutionContext::discover, Map::values);
+
+  private final Map<String, TokenResolver> resolvers;
+  private final Map<String, String> bindings = new LinkedHashMap<>();
+  private final Object lock;
+  private final boolean deterministicOnly;
+  private boolean deterministic = true;
+
+  private SubstitutionContext(Map<String, TokenResolver> resolvers, boolean shared, boolean deterministicOnly) {
+    this.resolvers = resolvers;
+    this.lock = shared ? this : null;
+    this.deterministicOnly = deterministicOnly;
+  }
+
+  public static SubstitutionContext create() {
+    return create(Thread.currentThread().getContextClassLoader());
+  }
+
+  /**
+   * @param loader the class loader {@link TokenResolver}s are discovered through
+   */
+  public static SubstitutionContext create(ClassLoader loader) {
+    return new SubstitutionContext(resolvers(loader), true, false);
+  }
+
+  /**
+   * A context that only invokes {@linkplain TokenResolver#isDeterministic() deterministic} resolvers, for checking
+   * bindings recorded earlier without side effects. Any other parameter is left unresolved and makes the context
+   * {@linkplain #isDeterministic() non-deterministic}.
+   *
+   * @param loader the class loader {@link TokenResolver}s are discovered through
+   */
+  public static SubstitutionContext createDeterministic(ClassLoader loader) {
+    return new SubstitutionContext(resolvers(loader), true, true);
+  }
+
+  /**
+   * A context confined to the calling thread, for a single render: it takes no locks.
+   */
+  static SubstitutionContext createLocal() {
+    return new SubstitutionContext(resolvers(Thread.currentThread().getContextClassLoader()), false, false);
+  }
+
+  public String substitute(String source) {
+    if (source == null) return null;
+
+    return SubstitutionTemplate.compile(source).render(this);
+  }
+
+  /**
+   * The parameters resolved so far and their values, in resolution order. A {@code null} value means the parameter
+   * could not be resolved.
+   */
+  public Map<String, String> getBindings() {
+    if (lock == null) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(bindings));
+    }
+    synchronized (lock) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(bindings));
+    }
+  }
+
+  /**
+   * Whether every parameter resolved so far has a {@linkplain TokenResolver#isDeterministic() deterministic} resolver,
+   * or none, so that resolving them again would give the same bindings. Only then can what was built from them be
+   * cached.
+   */
+  public boolean isDeterministic() {
+    if (lock == null) {
+      return deterministic;
+    }
+    synchronized (lock) {
+      return deterministic;
+    }
+  }
+
+  String resolve(String key, String resolverName, String argument) {
+    if (lock == null) {
+      return resolveUnlocked(key, resolverName, argument);
+    }
+    synchronized (lock) {
+      return resolveUnlocked(key, resolverName, argument);
+    }
+  }
+
+  private String resolveUnlocked(String key, String resolverName, String argument) {
+    if (bindings.containsKey(key)) {
+      return bindings.get(key);
+    }
+    TokenResolver resolver = resolvers.get(resolverName);
+    String value = null;
+    if (resolver != null) {
+      boolean stable = resolver.isDeterministic();
+      deterministic &= stable;
+      if (stable || !deterministicOnly) {
+        value = resolver.resolve(argument);
+      }
+    }
+    bindings.put(key, value);
+    return value;
+  }
+
+  private static Map<String, TokenResolver> resolvers(ClassLoader classLoader) {
+    return RESOLVERS.get(classLoader == null ? SubstitutionContext.class.getClassLoader() : classLoader);
+  }
+
+  private static Map<String, TokenResolver> discover(ClassLoader loader) {
+    Map<String, TokenResolver> discovered = new HashMap<>();
+    for (BuiltInTokens token : BuiltInTokens.values()) {
+      discovered.put(token.getName(), token);
+    }
+    for (TokenResolver resolver : ServiceLoader.load(TokenResolver.class, loader)) {
+      discovered.putIfAbsent(resolver.getName(), resolver);
+    }
+    return Collections.unmodifiableMap(discovered);
+  }
+}
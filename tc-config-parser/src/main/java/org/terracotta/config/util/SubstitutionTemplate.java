@@ -0,0 +1,256 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A string with {@link ParameterSubstitutor} parameters, parsed once into literal and parameter segments.
+ * <p>
+ * Templates are immutable and can be rendered concurrently. Parameters are evaluated on render, through a
+ * {@link SubstitutionContext} that memoizes them; host lookups are additionally memoized by {@link HostIdentity}.
+ * <p>
+ * Compiled templates are cached, up to a bound past which the least recently used ones are dropped. Cache hits take no
+ * lock: each entry only records when it was last used, and the ordering is only worked out when evicting.
+ */
+public final class SubstitutionTemplate {
+
+  private static final int CACHE_LIMIT = 1024;
+  private static final ConcurrentMap<String, SubstitutionTemplate> CACHE = new ConcurrentHashMap<>();
+  private static final AtomicLong CLOCK = new AtomicLong();
+
+  private final String source;
+  private final Segment[] segments;
+  private final boolean hostDerived;
+  private volatile long lastUsed;
+
+  private SubstitutionTemplate(String source, Segment[] segments, boolean hostDerived) {
+    this.source = source;
+    this.segments = segments;
+    this.hostDerived = hostDerived;
+  }
+
+  /**
+   * Returns the template for the given string, parsing it only if it has not been parsed recently. If the template
+   * refers to the local host identity, looking that up is started in the background.
+   */
+  public static SubstitutionTemplate compile(String source) {
+    SubstitutionTemplate template = CACHE.get(source);
+    if (template == null) {
+      template = parse(source);
+      SubstitutionTemplate raced = CACHE.putIfAbsent(source, template);
+      if (raced != null) {
+        template = raced;
+      } else if (CACHE.size() > CACHE_LIMIT) {
+        evictLeastRecentlyUsed();
+      }
+    }
+    template.lastUsed = CLOCK.incrementAndGet();
+    if (template.hostDerived) {
+      HostIdentity.startResolution();
+    }
+    return template;
+  }
+
+  /**
+   * Drops the least recently used quarter of the cache.
+   */
+  private static void evictLeastRecentlyUsed() {
+    synchronized (CACHE) {
+      int excess = CACHE.size() - CACHE_LIMIT * 3 / 4;
+      if (excess <= 0) {
+        return;
+      }
+      List<Map.Entry<String, SubstitutionTemplate>> entries = new ArrayList<>(CACHE.entrySet());
+      entries.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+      for (Map.Entry<String, SubstitutionTemplate> entry : entries.subList(0, Math.min(excess, entries.size()))) {
+        CACHE.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Renders the template, resolving its parameters in a new {@link SubstitutionContext} confined to this call.
+   */
+  public String render() {
+    return segments.length == 0 ? source : render(SubstitutionContext.createLocal());
+  }
+
+  /**
+   * Renders the template, resolving its parameters through the given context.
+   */
+  public String render(SubstitutionContext context) {
+    if (segments.length == 0) {
+      return source;
+    }
+    StringBuilder out = new StringBuilder(source.length() + 32);
+    for (Segment segment : segments) {
+      out.append(segment.value(context));
+    }
+    return out.toString();
+  }
+
+  /**
+   * Whether rendering can yield something other than the source string.
+   */
+  public boolean hasParameters() {
+    return segments.length != 0;
+  }
+
+  /**
+   * Whether the template refers to the local host name, canonical host name or IP address ({@code %h}, {@code %c},
+   * {@code %i}), so that it renders differently on different hosts.
+   */
+  public boolean usesHostIdentity() {
+    return hostDerived;
+  }
+
+  @Override
+  public String toString() {
+    return source;
+  }
+
+  private static SubstitutionTemplate parse(String source) {
+    List<Segment> segments = new ArrayList<>();
+    boolean parameters = false;
+    boolean hostDerived = false;
+    StringBuilder literal = new StringBuilder();
+
+    int length = source.length();
+    for (int i = 0; i < length; ++i) {
+      char c = source.charAt(i);
+      if (c != '%' || i + 1 == length) {
+        literal.append(c);
+        continue;
+      }
+
+      char nextChar = source.charAt(++i);
+      BuiltInTokens token = BuiltInTokens.of(nextChar);
+      Segment parameter = null;
+      if (token != null) {
+        parameter = new Parameter("%" + nextChar, token.getName(), null, "null");
+        hostDerived |= token.isHostDerived();
+      } else if (nextChar == '(' || nextChar == '{') {
+        int end = source.indexOf(nextChar == '(' ? ')' : '}', i + 1);
+        if (end >= 0) {
+          String body = source.substring(i + 1, end);
+          parameter = nextChar == '(' ? systemProperty(body) : named(body);
+          i = end;
+        } else {
+          literal.append(source, i - 1, length);
+          i = length;
+          continue;
+        }
+      }
+
+      if (parameter == null) {
+        // don't do any substitution and preserve the original chars
+        literal.append('%').append(nextChar);
+      } else {
+        addLiteral(segments, literal);
+        segments.add(parameter);
+        parameters = true;
+      }
+    }
+
+    if (!parameters) {
+      return new SubstitutionTemplate(source, new Segment[0], false);
+    }
+    addLiteral(segments, literal);
+    return new SubstitutionTemplate(source, segments.toArray(new Segment[segments.size()]), hostDerived);
+  }
+
+  /**
+   * {@code %(name)} or {@code %(name:default)}: a system property, or the default (the parameter itself if none) when
+   * the property is not set.
+   */
+  private static Parameter systemProperty(String body) {
+    String prop = body;
+    String defaultValue = "%(" + body + ")";
+    int index = body.lastIndexOf(':');
+
+    if (index > 0) {
+      prop = body.substring(0, index);
+      defaultValue = body.substring(index + 1);
+    }
+    return new Parameter("%(" + prop + ")", BuiltInTokens.SYSTEM_PROPERTY.getName(), prop, defaultValue);
+  }
+
+  /**
+   * {@code %{name}} or {@code %{name:argument}}: resolved by the {@link TokenResolver} of that name, and left as is if
+   * it cannot be resolved.
+   */
+  private static Parameter named(String body) {
+    int index = body.indexOf(':');
+    String name = index < 0 ? body : body.substring(0, index);
+    String argument = index < 0 ? null : body.substring(index + 1);
+    String parameter = "%{" + body + "}";
+    return new Parameter(parameter, name, argument, parameter);
+  }
+
+  private static void addLiteral(List<Segment> segments, StringBuilder literal) {
+    if (literal.length() > 0) {
+      segments.add(new Literal(literal.toString()));
+      literal.setLength(0);
+    }
+  }
+
+  private interface Segment {
+    String value(SubstitutionContext context);
+  }
+
+  private static final class Literal implements Segment {
+
+    private final String text;
+
+    Literal(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String value(SubstitutionContext context) {
+      return text;
+    }
+  }
+
+  private static final class Parameter implements Segment {
+
+    private final String key;
+    private final String resolver;
+    private final String argument;
+    private final String defaultValue;
+
+    Parameter(String key, String resolver, String argument, String defaultValue) {
+      this.key = key;
+      this.resolver = resolver;
+      this.argument = argument;
+      this.defaultValue = defaultValue;
+    }
+
+    @Override
+    public String value(SubstitutionContext context) {
+      String value = context.resolve(key, resolver, argument);
+      return value == null ? defaultValue : value;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+/**
+ * Resolves the {@code %{name}} and {@code %{name:argument}} parameters of substituted configuration values.
+ * <p>
+ * Implementations are discovered through {@link java.util.ServiceLoader}. A resolver is only invoked when a value
+ * being substituted references its name, and its result is memoized for the rest of the
+ * {@link SubstitutionContext}, so a parameter used many times in one configuration is resolved once. The built-in
+ * resolvers {@code env}, {@code sysprop} and {@code file} take precedence over discovered ones of the same name.
+ * <p>
+ * Configurations are only cached across parses when every parameter they use has a
+ * {@linkplain #isDeterministic() deterministic} resolver.
+ */
+public interface TokenResolver {
+
+  /**
+   * The name this resolver handles, as used in {@code %{name}}.
+   *
+   * @return resolver name, which must not contain {@code ':'} or <code>'}'</code>
+   */
+  String getName();
+
+  /**
+   * Resolves a parameter.
+   *
+   * @param argument the text after the first {@code ':'}, or {@code null} if there is none
+   * @return the value, or {@code null} to leave the parameter unsubstituted
+   */
+  String resolve(String argument);
+
+  /**
+   * Whether resolving the same parameter again, in another context or another process, gives the same value for as
+   * long as the environment it reads is unchanged, without any side effect. Values such as timestamps, counters or
+   * freshly created directories are not deterministic.
+   *
+   * @return {@code true} if a cached result can be validated by resolving the parameter again
+   */
+  default boolean isDeterministic() {
+    return false;
+  }
+}
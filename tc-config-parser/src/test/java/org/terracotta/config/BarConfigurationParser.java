@@ -16,8 +16,8 @@
  */
 package org.terracotta.config;
 
+import com.example.bar.DefaultsApplier;
 import com.example.bar.Bar;
-import org.terracotta.config.util.DefaultSubstitutor;
 import org.w3c.dom.Element;
 
 import javax.xml.bind.JAXBContext;
@@ -28,12 +28,17 @@ import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.terracotta.config.service.ExtendedConfigParser;
 
 public class BarConfigurationParser implements ExtendedConfigParser {
   private static final URI NAMESPACE = URI.create("http://www.example.com/bar");
   private static final URL XML_SCHEMA = BarConfigurationParser.class.getResource("/bar.xsd");
 
+  private static final AtomicInteger ACTIVE = new AtomicInteger();
+  static final AtomicBoolean CALLED_CONCURRENTLY = new AtomicBoolean();
+
   @Override
   public Source getXmlSchema() throws IOException {
     return new StreamSource(XML_SCHEMA.openStream());
@@ -46,16 +51,26 @@ public class BarConfigurationParser implements ExtendedConfigParser {
 
   @Override
   public Object parse(Element fragment, String source) {
+    if (ACTIVE.incrementAndGet() > 1) {
+      CALLED_CONCURRENTLY.set(true);
+    }
     Bar foo = null;
     try {
       JAXBContext jc = JAXBContext.newInstance("com.example.bar:org.terracotta.config");
       Unmarshaller u = jc.createUnmarshaller();
       foo = u.unmarshal(fragment, Bar.class).getValue();
-      DefaultSubstitutor.applyDefaults(foo);
+      DefaultsApplier.applyDefaults(foo);
     } catch (JAXBException e) {
       e.printStackTrace();
+    } finally {
+      ACTIVE.decrementAndGet();
     }
 
     return foo.getName();
   }
+
+  @Override
+  public Class<?> getConfigType() {
+    return String.class;
+  }
 }
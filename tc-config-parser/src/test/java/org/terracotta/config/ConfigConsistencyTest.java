@@ -0,0 +1,151 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigConsistencyTest {
+
+  @Test
+  public void testConfigConsistency() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-config-service.xml");
+    String xml = new String(Files.readAllBytes(Paths.get(resource.toURI())), StandardCharsets.UTF_8);
+    String bar = "<tccon:config>\n      <bar:bar name=\"bar\"/>\n    </tccon:config>";
+    String baz = "<tccon:config>\n      <bar:bar name=\"baz\"/>\n    </tccon:config>";
+    assertTrue(xml.contains(bar) && xml.contains(baz));
+
+    Map<String, TcConfiguration> members = new LinkedHashMap<>();
+    members.put("a", TCConfigurationParser.parse(xml));
+    members.put("b", TCConfigurationParser.parse(xml.replace(bar, "SWAP").replace(baz, bar).replace("SWAP", baz)));
+    members.put("c", TCConfigurationParser.parse(xml.replace("<tccon:servers>",
+        "<tccon:tc-properties><tccon:property name=\"p\" value=\"v\"/></tccon:tc-properties><tccon:servers>")));
+    members.put("d", TCConfigurationParser.parse(xml.replace(baz, "")));
+
+    // fragments are paired by position: b's swapped fragments are a variant of their own, which the validator accepts
+    List<ConfigConsistency.Disagreement<String>> disagreements = ConfigConsistency.check(members);
+    assertEquals(3, disagreements.size());
+
+    ConfigConsistency.Disagreement<String> properties = disagreements.get(0);
+    assertThat(properties.getSection(), is(ConfigChange.Section.PROPERTY));
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "d")), properties.getMembers());
+    assertEquals(Collections.singleton("c"), properties.getOtherMembers());
+
+    ConfigConsistency.Disagreement<String> plugins = disagreements.get(1);
+    assertThat(plugins.getSection(), is(ConfigChange.Section.PLUGIN));
+    assertEquals("http://www.example.com/bar", plugins.getNamespace());
+    assertEquals(new HashSet<>(Arrays.asList("a", "c")), plugins.getMembers());
+    assertEquals(Collections.singleton("d"), plugins.getOtherMembers());
+
+    ConfigConsistency.Disagreement<String> swapped = disagreements.get(2);
+    assertEquals("http://www.example.com/bar", swapped.getNamespace());
+    assertEquals(Collections.singleton("b"), swapped.getMembers());
+    assertEquals(Collections.singleton("d"), swapped.getOtherMembers());
+  }
+
+  @Test
+  public void testSingleFragmentMismatch() throws Exception {
+    String xml = read("tc-configuration-config-service.xml");
+    Map<String, TcConfiguration> members = new LinkedHashMap<>();
+    members.put("a", TCConfigurationParser.parse(xml));
+    members.put("b", TCConfigurationParser.parse(xml));
+    members.put("c", TCConfigurationParser.parse(xml.replace("<foo:foo name=\"foo\"/>", "<foo:foo name=\"qux\"/>")));
+
+    List<ConfigConsistency.Disagreement<String>> disagreements = ConfigConsistency.check(members);
+    assertEquals(1, disagreements.size());
+    ConfigConsistency.Disagreement<String> foo = disagreements.get(0);
+    assertThat(foo.getSection(), is(ConfigChange.Section.PLUGIN));
+    assertEquals("http://www.example.com/foo", foo.getNamespace());
+    assertEquals(new HashSet<>(Arrays.asList("a", "b")), foo.getMembers());
+    assertEquals(Collections.singleton("c"), foo.getOtherMembers());
+    assertThat(foo.getCause(), notNullValue());
+  }
+
+  @Test
+  public void testHostDerivedAttributesAgreeAcrossHosts() throws Exception {
+    String xml = read("tc-configuration-1.xml").replace("host=\"hostname\" name=\"hostname1\" bind=\"0.0.0.0\"", "host=\"%i\" bind=\"%i\"");
+    TcConfiguration local = TCConfigurationParser.parse(xml);
+    TcConfiguration remote = TCConfigurationParser.parse(xml);
+    // as another host would have resolved it
+    Server server = remote.getPlatformConfiguration().getServers().getServer().get(0);
+    server.setHost("192.0.2.1");
+    server.setBind("192.0.2.1");
+    server.setName("192.0.2.1:" + server.getTsaPort().getValue());
+    TcConfiguration literal = TCConfigurationParser.parse(xml.replace("host=\"%i\"", "host=\"192.0.2.1\""));
+
+    Map<String, TcConfiguration> members = new LinkedHashMap<>();
+    members.put("local", local);
+    members.put("remote", remote);
+    members.put("literal", literal);
+    List<ConfigConsistency.Disagreement<String>> disagreements = ConfigConsistency.check(members);
+    assertEquals(1, disagreements.size());
+    assertThat(disagreements.get(0).getSection(), is(ConfigChange.Section.SERVER));
+    assertEquals(new HashSet<>(Arrays.asList("local", "remote")), disagreements.get(0).getMembers());
+    assertTrue(Arrays.equals(local.getFingerprint(), remote.getFingerprint()));
+  }
+
+  @Test
+  public void testRelativeLogsAgreeAcrossDirectories() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    Path root = Files.createTempDirectory("tc-config");
+    try {
+      Map<String, TcConfiguration> members = new LinkedHashMap<>();
+      for (String member : Arrays.asList("a", "b")) {
+        Path config = Files.createDirectories(root.resolve(member)).resolve("tc-config.xml");
+        Files.write(config, xml.getBytes(StandardCharsets.UTF_8));
+        members.put(member, TCConfigurationParser.parse(config));
+      }
+      Path config = Files.createDirectories(root.resolve("c")).resolve("tc-config.xml");
+      Files.write(config, xml.replace(">mylog<", ">otherlog<").getBytes(StandardCharsets.UTF_8));
+      members.put("c", TCConfigurationParser.parse(config));
+
+      assertThat(members.get("a").getPlatform().getServer(0).getLogs().equals(members.get("b").getPlatform().getServer(0).getLogs()), is(false));
+      List<ConfigConsistency.Disagreement<String>> disagreements = ConfigConsistency.check(members);
+      assertEquals(1, disagreements.size());
+      assertThat(disagreements.get(0).getSection(), is(ConfigChange.Section.SERVER));
+      assertEquals(new HashSet<>(Arrays.asList("a", "b")), disagreements.get(0).getMembers());
+    } finally {
+      for (String member : Arrays.asList("a", "b", "c")) {
+        Files.delete(root.resolve(member).resolve("tc-config.xml"));
+        Files.delete(root.resolve(member));
+      }
+      Files.delete(root);
+    }
+  }
+
+  private static String read(String resource) throws Exception {
+    URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+    return new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
+  }
+}
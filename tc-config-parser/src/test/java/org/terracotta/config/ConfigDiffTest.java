@@ -0,0 +1,67 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class ConfigDiffTest {
+
+  @Test
+  public void testConfigDiff() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    String xml = new String(Files.readAllBytes(Paths.get(resource.toURI())), StandardCharsets.UTF_8);
+    TcConfiguration before = TCConfigurationParser.parse(xml);
+
+    assertThat(ConfigDiff.between(before, TCConfigurationParser.parse(xml)).isEmpty(), is(true));
+
+    String changed = xml.replace("<tccon:client-reconnect-window>200", "<tccon:client-reconnect-window>300")
+        .replace("value=\"blah1\"", "value=\"blah2\"")
+        .replace("<tccon:client-reconnect-window>", "<tccon:server name=\"other\"/><tccon:client-reconnect-window>");
+    TcConfiguration after = TCConfigurationParser.parse(changed);
+    List<ConfigChange> changes = ConfigDiff.between(before, after);
+
+    Server other = after.getPlatformConfiguration().getServers().getServer().get(1);
+    assertThat(other.getName(), is("other"));
+    Property oldProperty = before.getPlatformConfiguration().getTcProperties().getProperty().get(0);
+    Property newProperty = after.getPlatformConfiguration().getTcProperties().getProperty().get(0);
+    assertEquals(Arrays.asList(
+        new ConfigChange(ConfigChange.Section.SERVER, ConfigChange.Kind.ADDED, "other", null, other),
+        new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 200, 300),
+        new ConfigChange(ConfigChange.Section.PROPERTY, ConfigChange.Kind.MODIFIED, "name1", oldProperty, newProperty)), changes);
+    assertThat(newProperty.getValue(), is("blah2"));
+  }
+
+  @Test
+  public void testChangesWithDifferentValuesAreNotEqual() throws Exception {
+    ConfigChange change = new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 200, 300);
+    assertEquals(change, new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 200, 300));
+    assertEquals(change.hashCode(), new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 200, 300).hashCode());
+    assertThat(change.equals(new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 200, 400)), is(false));
+    assertThat(change.equals(new ConfigChange(ConfigChange.Section.CLIENT_RECONNECT_WINDOW, ConfigChange.Kind.MODIFIED, null, 100, 300)), is(false));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigDigestsTest {
+
+  @Test
+  public void testFingerprint() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    String xml = new String(Files.readAllBytes(Paths.get(resource.toURI())), StandardCharsets.UTF_8);
+    TcConfiguration configuration = TCConfigurationParser.parse(xml);
+
+    byte[] fingerprint = configuration.getFingerprint();
+    assertEquals(32, fingerprint.length);
+    assertTrue(Arrays.equals(fingerprint, TCConfigurationParser.parse(xml).getFingerprint()));
+    assertThat(Arrays.equals(fingerprint, TCConfigurationParser.parse(xml.replace("value=\"blah1\"", "value=\"blah2\"")).getFingerprint()), is(false));
+  }
+
+  @Test
+  public void testDuplicateServerNamesAreFingerprinted() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    String server = xml.substring(xml.indexOf("<tccon:server "), xml.indexOf("</tccon:server>") + "</tccon:server>".length());
+    String duplicated = xml.replace(server, server + server.replace(">200<", ">300<"));
+    TcConfiguration configuration = TCConfigurationParser.parse(duplicated);
+    assertEquals(2, configuration.getPlatform().getServerCount());
+
+    byte[] fingerprint = configuration.getFingerprint();
+    assertTrue(Arrays.equals(fingerprint, TCConfigurationParser.parse(duplicated).getFingerprint()));
+    assertThat(Arrays.equals(fingerprint, TCConfigurationParser.parse(xml).getFingerprint()), is(false));
+    assertThat(Arrays.equals(fingerprint, TCConfigurationParser.parse(xml.replace(server, server + server.replace(">200<", ">400<"))).getFingerprint()), is(false));
+  }
+
+  @Test
+  public void testRepeatedPropertiesAreFingerprintedByPosition() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    String property = "<tccon:property name=\"name1\" value=\"blah1\"/>";
+    String other = "<tccon:property name=\"name1\" value=\"blah2\"/>";
+    byte[] once = TCConfigurationParser.parse(xml.replace(property, other)).getFingerprint();
+    byte[] twice = TCConfigurationParser.parse(xml.replace(property, property + other)).getFingerprint();
+    byte[] swapped = TCConfigurationParser.parse(xml.replace(property, other + property)).getFingerprint();
+
+    assertThat(Arrays.equals(once, twice), is(false));
+    assertThat(Arrays.equals(twice, swapped), is(false));
+    assertTrue(Arrays.equals(twice, TCConfigurationParser.parse(xml.replace(property, property + other)).getFingerprint()));
+  }
+
+  private static String read(String resource) throws Exception {
+    URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+    return new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.FooServiceConfigurationParser.FooServiceProviderConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ConfigSnapshotTest {
+
+  @Test
+  public void testSnapshotRoundTrip() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    byte[] xml = Files.readAllBytes(Paths.get(resource.toURI()));
+    byte[] checksum = ConfigSnapshot.checksum(xml);
+    TcConfiguration parsed = TCConfigurationParser.parse(resource);
+
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    ConfigSnapshot.write(parsed, checksum, snapshot);
+    TcConfiguration restored = ConfigSnapshot.read(new ByteArrayInputStream(snapshot.toByteArray()), checksum, loader);
+
+    assertThat(ConfigDiff.between(parsed, restored).isEmpty(), is(true));
+    assertEquals(parsed.getExtendedConfiguration(String.class), restored.getExtendedConfiguration(String.class));
+    FooServiceProviderConfiguration foo = (FooServiceProviderConfiguration) restored.getServiceConfigurations().get(0);
+    assertEquals("foo", foo.getFoo().getName());
+
+    try {
+      ConfigSnapshot.read(new ByteArrayInputStream(snapshot.toByteArray()), ConfigSnapshot.checksum(new byte[0]), loader);
+      fail("Expected StaleSnapshotException");
+    } catch (ConfigSnapshot.StaleSnapshotException e) {
+      // expected
+    }
+  }
+
+
+  @Test
+  public void testSnapshotHoldsDigestsOfParameterValues() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    String xml = new String(Files.readAllBytes(Paths.get(resource.toURI())), StandardCharsets.UTF_8)
+        .replace("host=\"hostname\"", "host=\"%(tc.config.test.secret)\"");
+    String previous = System.setProperty("tc.config.test.secret", "s3cr3t");
+    try {
+      TcConfiguration parsed = TCConfigurationParser.parse(xml);
+      String digest = parsed.getBindingDigests().get("%(tc.config.test.secret)");
+      assertThat(digest.length(), is(64));
+      assertThat(digest, not("s3cr3t"));
+
+      byte[] checksum = ConfigSnapshot.checksum(xml.getBytes(StandardCharsets.UTF_8));
+      ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+      ConfigSnapshot.write(parsed, checksum, snapshot);
+      TcConfiguration restored = ConfigSnapshot.read(new ByteArrayInputStream(snapshot.toByteArray()), checksum,
+                                                     Thread.currentThread().getContextClassLoader());
+      assertEquals(parsed.getBindingDigests(), restored.getBindingDigests());
+    } finally {
+      if (previous == null) {
+        System.clearProperty("tc.config.test.secret");
+      } else {
+        System.setProperty("tc.config.test.secret", previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.config.service.ValidationException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+/**
+ * Reloads are triggered directly rather than waiting for the {@link java.nio.file.WatchService}, whose latency is
+ * platform dependent (it polls every few seconds on macOS).
+ */
+public class ConfigurationWatcherTest {
+
+  private Path directory;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("tc-config-watcher");
+    file = directory.resolve("tc-config.xml");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testReloadPublishesChanges() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    write(xml);
+
+    try (ConfigurationWatcher watcher = new ConfigurationWatcher(file, 50, TimeUnit.MILLISECONDS)) {
+      assertThat(watcher.getConfiguration().getPlatformConfiguration().getServers().getClientReconnectWindow(), is(200));
+      BlockingQueue<TcConfiguration> published = new LinkedBlockingQueue<>();
+      watcher.addListener((oldConfiguration, newConfiguration) -> published.add(newConfiguration));
+
+      write(xml.replace("<tccon:client-reconnect-window>200", "<tccon:client-reconnect-window>300"));
+      watcher.scheduleReload();
+
+      TcConfiguration reloaded = published.poll(10, TimeUnit.SECONDS);
+      assertThat(reloaded, notNullValue());
+      assertThat(watcher.getConfiguration(), sameInstance(reloaded));
+      assertThat(reloaded.getPlatformConfiguration().getServers().getClientReconnectWindow(), is(300));
+    }
+  }
+
+  @Test
+  public void testFailedReloadKeepsConfigurationAndNotifiesEveryListener() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    write(xml);
+
+    try (ConfigurationWatcher watcher = new ConfigurationWatcher(file, 50, TimeUnit.MILLISECONDS)) {
+      TcConfiguration original = watcher.getConfiguration();
+      BlockingQueue<Exception> failures = new LinkedBlockingQueue<>();
+      watcher.addListener(new FailureListener(null));
+      watcher.addListener(new FailureListener(failures));
+
+      write(xml.replace("<tccon:client-reconnect-window>200", "<tccon:client-reconnect-window>two hundred"));
+      watcher.scheduleReload();
+
+      assertThat(failures.poll(10, TimeUnit.SECONDS), notNullValue());
+      assertThat(watcher.getConfiguration(), sameInstance(original));
+    }
+  }
+
+  @Test
+  public void testReloadRemovingPluginFragmentIsRejected() throws Exception {
+    String xml = read("tc-configuration-config-service.xml");
+    write(xml);
+
+    try (ConfigurationWatcher watcher = new ConfigurationWatcher(file, 50, TimeUnit.MILLISECONDS)) {
+      TcConfiguration original = watcher.getConfiguration();
+      BlockingQueue<Exception> failures = new LinkedBlockingQueue<>();
+      watcher.addListener(new FailureListener(failures));
+
+      write(xml.replace("<tccon:service>\n      <foo:foo name=\"foo\"/>\n    </tccon:service>", ""));
+      watcher.scheduleReload();
+
+      assertThat(failures.poll(10, TimeUnit.SECONDS), instanceOf(ValidationException.class));
+      assertThat(watcher.getConfiguration(), sameInstance(original));
+    }
+  }
+
+  @Test
+  public void testFileReplacedByAtomicMoveIsReloaded() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    write(xml);
+
+    try (ConfigurationWatcher watcher = new ConfigurationWatcher(file, 50, TimeUnit.MILLISECONDS)) {
+      BlockingQueue<TcConfiguration> published = new LinkedBlockingQueue<>();
+      watcher.addListener((oldConfiguration, newConfiguration) -> published.add(newConfiguration));
+
+      Path replacement = directory.resolve("tc-config.xml.tmp");
+      Files.write(replacement, xml.replace("<tccon:client-reconnect-window>200", "<tccon:client-reconnect-window>300")
+          .getBytes(StandardCharsets.UTF_8));
+      Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      TcConfiguration reloaded = published.poll(30, TimeUnit.SECONDS);
+      assertThat(reloaded, notNullValue());
+      assertThat(reloaded.getPlatformConfiguration().getServers().getClientReconnectWindow(), is(300));
+    }
+  }
+
+  @Test
+  public void testChangesToTheTargetOfASymbolicLinkAreReloaded() throws Exception {
+    String xml = read("tc-configuration-1.xml");
+    Path targetDirectory = Files.createTempDirectory("tc-config-watcher-target");
+    Path target = targetDirectory.resolve("tc-config.xml");
+    try {
+      Files.write(target, xml.getBytes(StandardCharsets.UTF_8));
+      try {
+        Files.createSymbolicLink(file, target);
+      } catch (UnsupportedOperationException | IOException e) {
+        assumeNoException(e);
+      }
+
+      try (ConfigurationWatcher watcher = new ConfigurationWatcher(file, 50, TimeUnit.MILLISECONDS)) {
+        BlockingQueue<TcConfiguration> published = new LinkedBlockingQueue<>();
+        watcher.addListener((oldConfiguration, newConfiguration) -> published.add(newConfiguration));
+
+        Files.write(target, xml.replace("<tccon:client-reconnect-window>200", "<tccon:client-reconnect-window>300")
+            .getBytes(StandardCharsets.UTF_8));
+
+        TcConfiguration reloaded = published.poll(30, TimeUnit.SECONDS);
+        assertThat(reloaded, notNullValue());
+        assertThat(reloaded.getPlatformConfiguration().getServers().getClientReconnectWindow(), is(300));
+      }
+    } finally {
+      Files.deleteIfExists(target);
+      Files.delete(targetDirectory);
+    }
+  }
+
+  private void write(String xml) throws Exception {
+    Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(String resource) throws Exception {
+    URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+    return new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Collects reload failures, or throws from the callback if it has nowhere to put them.
+   */
+  private static final class FailureListener implements ConfigurationWatcher.Listener {
+
+    private final BlockingQueue<Exception> failures;
+
+    FailureListener(BlockingQueue<Exception> failures) {
+      this.failures = failures;
+    }
+
+    @Override
+    public void configurationChanged(TcConfiguration oldConfiguration, TcConfiguration newConfiguration) {
+    }
+
+    @Override
+    public void reloadFailed(Exception cause) {
+      if (failures == null) {
+        throw new IllegalStateException("listener failure");
+      }
+      failures.add(cause);
+    }
+  }
+}
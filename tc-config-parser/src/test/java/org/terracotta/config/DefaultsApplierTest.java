@@ -0,0 +1,75 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.util.DefaultSubstitutor;
+
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringWriter;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultsApplierTest {
+
+  private static final String[] FIXTURES = {
+      "tc-configuration-1.xml",
+      "tc-configuration-default-settings.xml",
+      "tc-configuration-service.xml",
+      "tc-configuration-empty-service.xml",
+      "tc-configuration-config-service.xml",
+      "tc-config-failover-availability.xml",
+      "tc-config-failover-consistency.xml",
+      "tc-config-failover-consistency-voters.xml"
+  };
+
+  @Test
+  public void testGeneratedApplierMatchesDefaultSubstitutor() throws Exception {
+    for (String fixture : FIXTURES) {
+      TcConfig reflective = unmarshal(fixture);
+      DefaultSubstitutor.applyDefaults(reflective);
+      TcConfig generated = unmarshal(fixture);
+      DefaultsApplier.applyDefaults(generated);
+
+      assertEquals(fixture, marshal(reflective), marshal(generated));
+    }
+  }
+
+  private static TcConfig unmarshal(String resource) throws Exception {
+    URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+    Unmarshaller unmarshaller = PlatformJaxb.borrowUnmarshaller();
+    try {
+      return unmarshaller.unmarshal(new StreamSource(url.openStream()), TcConfig.class).getValue();
+    } finally {
+      PlatformJaxb.release(unmarshaller);
+    }
+  }
+
+  private static String marshal(TcConfig tcConfig) throws Exception {
+    StringWriter writer = new StringWriter();
+    Marshaller marshaller = PlatformJaxb.borrowMarshaller();
+    try {
+      marshaller.marshal(tcConfig, writer);
+    } finally {
+      PlatformJaxb.release(marshaller);
+    }
+    return writer.toString();
+  }
+}
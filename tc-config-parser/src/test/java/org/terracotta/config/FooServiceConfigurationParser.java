@@ -16,9 +16,11 @@
  */
 package org.terracotta.config;
 
+import com.example.foo.DefaultsApplier;
 import com.example.foo.Foo;
+import org.terracotta.config.service.ConfigValidator;
 import org.terracotta.config.service.ServiceConfigParser;
-import org.terracotta.config.util.DefaultSubstitutor;
+import org.terracotta.config.service.ValidationException;
 import org.w3c.dom.Element;
 
 import javax.xml.bind.JAXBContext;
@@ -70,11 +72,28 @@ public class FooServiceConfigurationParser implements ServiceConfigParser {
       JAXBContext jc = JAXBContext.newInstance("com.example.foo:org.terracotta.config");
       Unmarshaller u = jc.createUnmarshaller();
       foo = u.unmarshal(fragment, Foo.class).getValue();
-      DefaultSubstitutor.applyDefaults(foo);
+      DefaultsApplier.applyDefaults(foo);
     } catch (JAXBException e) {
       e.printStackTrace();
     }
 
     return new FooServiceProviderConfiguration(foo);
   }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public ConfigValidator getConfigValidator() {
+    return new ConfigValidator() {
+      @Override
+      public void validateAgainst(Element oneFragment, Element otherFragment) throws ValidationException {
+        if (!oneFragment.getAttribute("name").equals(otherFragment.getAttribute("name"))) {
+          throw new ValidationException("foo " + oneFragment.getAttribute("name") + " <> " + otherFragment.getAttribute("name"), 1);
+        }
+      }
+    };
+  }
 }
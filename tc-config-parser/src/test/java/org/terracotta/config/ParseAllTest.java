@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class ParseAllTest {
+
+  @Test
+  public void testParseAll() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    Path valid = Paths.get(loader.getResource("tc-configuration-config-service.xml").toURI());
+    Path invalid = Paths.get(loader.getResource("tc-configuration-config-service-with-errors.xml").toURI());
+    Path missing = valid.resolveSibling("no-such-tc-config.xml");
+
+    List<ParseResult> results = TCConfigurationParser.parseAll(Arrays.asList(valid, invalid, missing, valid),
+                                                              loader, ParseOptions.defaults(), 2);
+    assertEquals(4, results.size());
+
+    assertThat(results.get(0).getPath(), is(valid));
+    assertThat(results.get(0).isSuccess(), is(true));
+    assertEquals(Arrays.asList("bar", "baz"), results.get(0).getConfiguration().getExtendedConfiguration(String.class));
+
+    assertThat(results.get(1).isSuccess(), is(false));
+    assertThat(results.get(1).getFailure(), instanceOf(TCConfigurationSetupException.class));
+    assertThat(results.get(1).getParseErrors().isEmpty(), is(false));
+
+    assertThat(results.get(2).isSuccess(), is(false));
+    assertThat(results.get(2).getFailure(), instanceOf(IOException.class));
+
+    assertThat(results.get(3).isSuccess(), is(true));
+  }
+}
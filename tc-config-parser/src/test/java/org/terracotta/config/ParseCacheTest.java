@@ -0,0 +1,227 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParseCacheTest {
+
+  @Test
+  public void testParseCache() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    Path config = Paths.get(loader.getResource("tc-configuration-config-service.xml").toURI());
+    Path cache = Files.createTempDirectory("tc-config-cache");
+    List<Path> entries = new ArrayList<>();
+    try {
+      ParseOptions options = ParseOptions.defaults().withCacheDirectory(cache);
+      TcConfiguration parsed = TCConfigurationParser.parse(config, loader, options);
+      try (DirectoryStream<Path> listing = Files.newDirectoryStream(cache)) {
+        listing.forEach(entries::add);
+      }
+      assertEquals(1, entries.size());
+
+      TcConfiguration cached = TCConfigurationParser.parse(config, loader, options);
+      assertThat(ConfigDiff.between(parsed, cached).isEmpty(), is(true));
+      assertEquals(parsed.getExtendedConfiguration(String.class), cached.getExtendedConfiguration(String.class));
+
+      // a corrupt entry is a miss, and gets replaced
+      Files.write(entries.get(0), new byte[] { 1, 2, 3 });
+      TcConfiguration reparsed = TCConfigurationParser.parse(config, loader, options);
+      assertThat(ConfigDiff.between(parsed, reparsed).isEmpty(), is(true));
+      assertTrue(Files.size(entries.get(0)) > 3);
+    } finally {
+      for (Path entry : entries) {
+        Files.deleteIfExists(entry);
+      }
+      Files.delete(cache);
+    }
+  }
+
+  @Test
+  public void testStaleSchemaKeyIsAMiss() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    Path config = Paths.get(loader.getResource("tc-configuration-config-service.xml").toURI());
+    Path cache = Files.createTempDirectory("tc-config-cache");
+    try {
+      ParseOptions options = ParseOptions.defaults().withCacheDirectory(cache);
+      TcConfiguration parsed = TCConfigurationParser.parse(config, loader, options);
+      Path entry = entries(cache).get(0);
+
+      // the key identifies the platform and the code of every plugin parser, so replacing any of them is a miss
+      String schemaKey = parsed.getSchemaKey();
+      assertThat(schemaKey, containsString(ConfigSnapshot.platformKey()));
+      assertThat(schemaKey, containsString(CodeIdentity.of(BarConfigurationParser.class)));
+
+      TcConfiguration stale = new TcConfiguration(parsed.getPlatformConfiguration(), parsed.getSource(), parsed.getFragments(),
+                                                  null, false, () -> schemaKey + "\nconfig|changed", parsed.getBindingDigests(),
+                                                  parsed.getHostTemplates(), null);
+      byte[] checksum = ConfigSnapshot.checksum(Files.readAllBytes(config));
+      try (OutputStream out = Files.newOutputStream(entry)) {
+        ConfigSnapshot.write(stale, checksum, out);
+      }
+      try (InputStream in = Files.newInputStream(entry)) {
+        ConfigSnapshot.read(in, checksum, loader);
+        fail("Expected StaleSnapshotException");
+      } catch (ConfigSnapshot.StaleSnapshotException e) {
+        // expected
+      }
+
+      TcConfiguration reparsed = TCConfigurationParser.parse(config, loader, options);
+      assertThat(ConfigDiff.between(parsed, reparsed).isEmpty(), is(true));
+      try (InputStream in = Files.newInputStream(entry)) {
+        assertThat(ConfigSnapshot.read(in, checksum, loader).getSchemaKey(), is(schemaKey));
+      }
+    } finally {
+      delete(cache);
+    }
+  }
+
+  @Test
+  public void testVolatileParametersAreNotCached() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    String xml = new String(Files.readAllBytes(Paths.get(loader.getResource("tc-configuration-1.xml").toURI())), StandardCharsets.UTF_8);
+    Path directory = Files.createTempDirectory("tc-config-cache");
+    try {
+      Path config = directory.resolve("tc-config.xml");
+      Files.write(config, xml.replace(">mylog<", ">mylog-%D<").getBytes(StandardCharsets.UTF_8));
+      Path cache = directory.resolve("cache");
+
+      TcConfiguration parsed = TCConfigurationParser.parse(config, loader, ParseOptions.defaults().withCacheDirectory(cache));
+      assertThat(parsed.getBindingDigests(), nullValue());
+      assertThat(Files.exists(cache), is(false));
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  public void testHitHonoursParseOptions() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    Path config = Paths.get(loader.getResource("tc-configuration-config-service.xml").toURI());
+    Path cache = Files.createTempDirectory("tc-config-cache");
+    try {
+      TCConfigurationParser.parse(config, loader, ParseOptions.defaults().withCacheDirectory(cache));
+
+      List<ParseStats.Timing> reported = new ArrayList<>();
+      ParseStats[] completed = new ParseStats[1];
+      ParseListener listener = new ParseListener() {
+        @Override
+        public void phaseCompleted(String source, ParseStats.Timing timing) {
+          reported.add(timing);
+        }
+
+        @Override
+        public void parseCompleted(ParseStats stats) {
+          completed[0] = stats;
+        }
+      };
+      ParseOptions options = ParseOptions.defaults().withCacheDirectory(cache).withParseListener(listener);
+      TcConfiguration lazy = TCConfigurationParser.parse(config, loader, options.withLazyPlugins(true));
+      ParseStats stats = lazy.getParseStats();
+      assertEquals(stats.getTimings(), reported);
+      assertEquals(stats.getTimings(), completed[0].getTimings());
+      assertEquals(Collections.singletonList(ParsePhase.SNAPSHOT), phases(stats));
+      assertEquals(Files.size(config), stats.getDocumentBytes());
+      assertEquals(Arrays.asList("bar", "baz"), lazy.getExtendedConfiguration(String.class));
+
+      TcConfiguration eager = TCConfigurationParser.parse(config, loader, options);
+      List<ParsePhase> phases = phases(eager.getParseStats());
+      assertThat(phases.get(0), is(ParsePhase.SNAPSHOT));
+      assertThat(phases.size() > 1, is(true));
+      for (ParsePhase phase : phases.subList(1, phases.size())) {
+        assertThat(phase, is(ParsePhase.PLUGIN));
+      }
+    } finally {
+      delete(cache);
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedEntries() throws Exception {
+    Path cache = Files.createTempDirectory("tc-config-cache");
+    try {
+      List<Path> entries = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        Path entry = Files.write(cache.resolve(i + ".tccs"), new byte[] { (byte) i });
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(1_000_000L * (i + 1)));
+        entries.add(entry);
+      }
+      Path other = Files.write(cache.resolve("other.tmp"), new byte[0]);
+
+      ParseCache.evict(cache, 10);
+      assertEquals(new HashSet<>(entries), new HashSet<>(entries(cache)));
+
+      ParseCache.evict(cache, 8);
+      assertEquals(new HashSet<>(entries.subList(4, 10)), new HashSet<>(entries(cache)));
+      assertThat(Files.exists(other), is(true));
+    } finally {
+      delete(cache);
+    }
+  }
+
+  private static List<ParsePhase> phases(ParseStats stats) {
+    List<ParsePhase> phases = new ArrayList<>();
+    for (ParseStats.Timing timing : stats.getTimings()) {
+      phases.add(timing.getPhase());
+    }
+    return phases;
+  }
+
+  private static List<Path> entries(Path cache) throws IOException {
+    List<Path> entries = new ArrayList<>();
+    try (DirectoryStream<Path> listing = Files.newDirectoryStream(cache, "*.tccs")) {
+      listing.forEach(entries::add);
+    }
+    return entries;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory)) {
+      for (Path path : listing) {
+        if (Files.isDirectory(path)) {
+          delete(path);
+        } else {
+          Files.delete(path);
+        }
+      }
+    }
+    Files.delete(directory);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class ParseInputTest {
+
+  @Test
+  public void testStreamUnderreportingAvailableIsReadFully() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    InputStream stream = new FilterInputStream(resource.openStream()) {
+      @Override
+      public int available() {
+        return 0;
+      }
+    };
+    TcConfiguration conf = TCConfigurationParser.parse(stream);
+    assertThat(conf.getPlatformConfiguration().getServers().getClientReconnectWindow(), is(200));
+  }
+
+  @Test
+  public void testPathParse() throws Exception {
+    Path path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml").toURI());
+    TcConfiguration conf = TCConfigurationParser.parse(path);
+    Server s = conf.getPlatformConfiguration().getServers().getServer().get(0);
+
+    assertThat(s.getName(), is("hostname1"));
+    assertThat(s.getTsaPort().getValue(), is(200));
+    assertThat(s.getLogs(), is(path.getParent().resolve("mylog").toAbsolutePath().normalize().toString()));
+
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    TcConfiguration mapped = TCConfigurationParser.parse(path, loader, ParseOptions.defaults().withMemoryMapped(true));
+    assertEquals(conf.toString(), mapped.toString());
+  }
+}
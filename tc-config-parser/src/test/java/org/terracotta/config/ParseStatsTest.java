@@ -0,0 +1,64 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParseStatsTest {
+
+  @Test
+  public void testParseStats() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-config-service.xml");
+    List<ParseStats.Timing> reported = Collections.synchronizedList(new ArrayList<>());
+    ParseStats[] completed = new ParseStats[1];
+    ParseOptions options = ParseOptions.defaults().withParseListener(new ParseListener() {
+      @Override
+      public void phaseCompleted(String source, ParseStats.Timing timing) {
+        reported.add(timing);
+      }
+
+      @Override
+      public void parseCompleted(ParseStats stats) {
+        completed[0] = stats;
+      }
+    });
+    TcConfiguration configuration = TCConfigurationParser.parse(resource, Thread.currentThread().getContextClassLoader(), options);
+
+    ParseStats stats = configuration.getParseStats();
+    assertEquals(stats.getTimings(), reported);
+    assertEquals(stats.getTimings(), completed[0].getTimings());
+    List<ParsePhase> phases = new ArrayList<>();
+    for (ParseStats.Timing timing : stats.getTimings()) {
+      phases.add(timing.getPhase());
+    }
+    assertEquals(Arrays.asList(ParsePhase.SCHEMA, ParsePhase.PARSE, ParsePhase.BIND, ParsePhase.DEFAULTS,
+                               ParsePhase.SUBSTITUTION, ParsePhase.PLUGIN, ParsePhase.PLUGIN, ParsePhase.PLUGIN), phases);
+    assertEquals("http://www.example.com/bar", stats.getTimings().get(5).getNamespace());
+    assertEquals(Files.size(Paths.get(resource.toURI())), stats.getDocumentBytes());
+    assertEquals(stats.getDocumentBytes(), stats.getTimings().get(1).getBytes());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class PlatformConfigTest {
+
+  @Test
+  public void testPlatformConfig() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    TcConfiguration conf = TCConfigurationParser.parse(resource);
+    TcConfig tcConfig = conf.getPlatformConfiguration();
+    PlatformConfig platform = conf.getPlatform();
+    assertThat(conf.getPlatform(), sameInstance(platform));
+
+    List<Server> servers = tcConfig.getServers().getServer();
+    assertEquals(servers.size(), platform.getServerCount());
+    for (int i = 0; i < servers.size(); i++) {
+      Server server = servers.get(i);
+      PlatformConfig.ServerConfig view = platform.getServer(i);
+      assertThat(platform.getServer(server.getName()), sameInstance(view));
+      assertEquals(server.getHost(), view.getHost());
+      assertEquals(server.getBind(), view.getBind());
+      assertEquals(server.getLogs(), view.getLogs());
+      assertEquals(server.getTsaPort().getValue(), view.getTsaPort());
+      assertEquals(server.getTsaGroupPort().getValue(), view.getGroupPort());
+    }
+    assertEquals((int) tcConfig.getServers().getClientReconnectWindow(), platform.getClientReconnectWindow());
+    assertEquals(tcConfig.getTcProperties().getProperty().size(), platform.getPropertyCount());
+    assertEquals("blah1", platform.getProperty("name1"));
+    assertThat(platform.getFailoverMode(), is(PlatformConfig.FailoverMode.NONE));
+
+    URL voters = Thread.currentThread().getContextClassLoader().getResource("tc-config-failover-consistency-voters.xml");
+    PlatformConfig consistency = TCConfigurationParser.parse(voters).getPlatform();
+    assertThat(consistency.getFailoverMode(), is(PlatformConfig.FailoverMode.CONSISTENCY));
+    assertEquals(TCConfigurationParser.parse(voters).getPlatformConfiguration().getFailoverPriority().getConsistency().getVoter().getCount(),
+                 consistency.getVoterCount());
+  }
+
+  @Test
+  public void testPlatformConfigIsBuiltOnFirstAccess() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-1.xml");
+    TcConfiguration conf = TCConfigurationParser.parse(resource);
+    for (Property property : conf.getPlatformConfiguration().getTcProperties().getProperty()) {
+      if (property.getName().equals("name1")) {
+        property.setValue("changed");
+      }
+    }
+    assertEquals("changed", conf.getPlatform().getProperty("name1"));
+  }
+}
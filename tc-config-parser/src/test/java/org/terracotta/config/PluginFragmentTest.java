@@ -0,0 +1,118 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.FooServiceConfigurationParser.FooServiceProviderConfiguration;
+
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class PluginFragmentTest {
+
+  @Test
+  public void testParallelPluginParsingKeepsDocumentOrder() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      TcConfiguration conf = TCConfigurationParser.parse(resource, loader, ParseOptions.defaults().withPluginExecutor(executor));
+      assertEquals(Arrays.asList("bar", "baz"), conf.getExtendedConfiguration(String.class));
+      FooServiceProviderConfiguration foo = (FooServiceProviderConfiguration) conf.getServiceConfigurations().get(0);
+      assertEquals("foo", foo.getFoo().getName());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParseFromTaskOnPluginExecutorDoesNotDeadlock() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<TcConfiguration> nested = executor.submit(
+          () -> TCConfigurationParser.parse(resource, loader, ParseOptions.defaults().withPluginExecutor(executor)));
+      TcConfiguration conf = nested.get(30, TimeUnit.SECONDS);
+      assertEquals(Arrays.asList("bar", "baz"), conf.getExtendedConfiguration(String.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSharedParsersAreNotCalledConcurrently() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    Path config = Paths.get(loader.getResource("tc-configuration-config-service.xml").toURI());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      BarConfigurationParser.CALLED_CONCURRENTLY.set(false);
+      List<ParseResult> results = TCConfigurationParser.parseAll(Collections.nCopies(16, config), loader,
+                                                                ParseOptions.defaults().withPluginExecutor(executor), 4);
+      for (ParseResult result : results) {
+        assertThat(result.isSuccess(), is(true));
+      }
+      assertThat(BarConfigurationParser.CALLED_CONCURRENTLY.get(), is(false));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParsersAreNotLockedThroughTheirOwnMonitor() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    Object bar = PluginParserRegistry.forLoader(loader).getConfigParser(URI.create("http://www.example.com/bar"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      synchronized (bar) {
+        Future<TcConfiguration> parse = executor.submit(() -> TCConfigurationParser.parse(resource, loader));
+        TcConfiguration conf = parse.get(30, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("bar", "baz"), conf.getExtendedConfiguration(String.class));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testOnlyParsersThatAreNotThreadSafeGetALock() throws Exception {
+    PluginParsers parsers = PluginParserRegistry.forLoader(Thread.currentThread().getContextClassLoader());
+    Object foo = parsers.getServiceParser(URI.create("http://www.example.com/foo"));
+    Object bar = parsers.getConfigParser(URI.create("http://www.example.com/bar"));
+    assertThat(parsers.getLock(foo), nullValue());
+    assertThat(parsers.getLock(bar), notNullValue());
+    assertThat(parsers.getLock(bar), not(sameInstance(bar)));
+  }
+}
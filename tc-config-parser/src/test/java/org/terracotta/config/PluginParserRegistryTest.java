@@ -0,0 +1,60 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.util.ChildFirstClassLoader;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PluginParserRegistryTest {
+
+  @Test
+  public void testPluginParsersAreDiscoveredOncePerLoader() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    PluginParsers parsers = PluginParserRegistry.forLoader(loader);
+
+    assertThat(PluginParserRegistry.forLoader(loader), sameInstance(parsers));
+    assertThat(parsers.getServiceParser(URI.create("http://www.example.com/foo")), instanceOf(FooServiceConfigurationParser.class));
+    assertThat(parsers.getConfigParser(URI.create("http://www.example.com/bar")), instanceOf(BarConfigurationParser.class));
+    assertThat(TCConfigurationParser.getValidator(URI.create("http://www.example.com/foo"), loader), notNullValue());
+  }
+
+  @Test
+  public void testParsersDoNotKeepTheirLoaderAlive() throws Exception {
+    ClassLoader loader = new ChildFirstClassLoader(getClass().getClassLoader(), FooServiceConfigurationParser.class.getName(),
+                                                   BarConfigurationParser.class.getName());
+    PluginParsers parsers = PluginParserRegistry.forLoader(loader);
+    assertThat(parsers.getServiceParser(URI.create("http://www.example.com/foo")).getClass().getClassLoader(), sameInstance(loader));
+    parsers = null;
+
+    WeakReference<ClassLoader> reference = new WeakReference<>(loader);
+    loader = null;
+    for (int i = 0; i < 100 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(reference.get(), nullValue());
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.service.ExtendedConfigParser;
+import org.terracotta.config.service.ServiceConfigParser;
+
+import javax.xml.validation.Schema;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SchemaCacheTest {
+
+  @Test
+  public void testSchemaIsCompiledOnce() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    List<ServiceConfigParser> serviceParsers = Collections.singletonList(new FooServiceConfigurationParser());
+    List<ExtendedConfigParser> configParsers = Collections.singletonList(new BarConfigurationParser());
+
+    Schema schema = SchemaCache.getSchema(loader, serviceParsers, configParsers);
+    assertThat(SchemaCache.getSchema(loader, serviceParsers, configParsers), sameInstance(schema));
+    assertThat(SchemaCache.getSchema(loader, serviceParsers, Collections.emptyList()), not(sameInstance(schema)));
+  }
+
+  @Test
+  public void testOnlyThePersistentKeyIdentifiesCode() throws Exception {
+    List<ServiceConfigParser> serviceParsers = Collections.singletonList(new FooServiceConfigurationParser());
+    List<ExtendedConfigParser> configParsers = Collections.singletonList(new BarConfigurationParser());
+
+    String key = SchemaCache.keyFor(serviceParsers, configParsers);
+    assertThat(key, containsString(BarConfigurationParser.class.getName()));
+    assertThat(key, not(containsString(CodeIdentity.of(BarConfigurationParser.class))));
+
+    String persistentKey = SchemaCache.persistentKeyFor(serviceParsers, configParsers);
+    assertThat(persistentKey, containsString(CodeIdentity.of(BarConfigurationParser.class)));
+    assertThat(persistentKey, containsString(ConfigSnapshot.platformKey()));
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.FooServiceConfigurationParser.FooServiceProviderConfiguration;
+
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingParseTest {
+
+  @Test
+  public void testStreamingParseMatchesDocumentParse() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    TcConfiguration document = TCConfigurationParser.parse(resource, loader, ParseOptions.defaults());
+    TcConfiguration streamed = TCConfigurationParser.parse(resource, loader, ParseOptions.defaults().withStreaming(true));
+
+    assertEquals(document.toString(), streamed.toString());
+    assertEquals(document.getExtendedConfiguration(String.class), streamed.getExtendedConfiguration(String.class));
+    FooServiceProviderConfiguration foo = (FooServiceProviderConfiguration) streamed.getServiceConfigurations().get(0);
+    assertEquals("foo", foo.getFoo().getName());
+  }
+
+  @Test (expected = TCConfigurationSetupException.class)
+  public void testStreamingParseReportsValidationErrors() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service-with-errors.xml");
+    TCConfigurationParser.parse(resource.openStream(), loader, ParseOptions.defaults().withStreaming(true));
+  }
+}
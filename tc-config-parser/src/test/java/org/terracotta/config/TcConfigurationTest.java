@@ -0,0 +1,71 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config;
+
+import org.junit.Test;
+import org.terracotta.config.FooServiceConfigurationParser.FooServiceProviderConfiguration;
+import org.terracotta.entity.ServiceProviderConfiguration;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class TcConfigurationTest {
+
+  @Test
+  public void testLazyPluginParsing() throws Exception {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    URL resource = loader.getResource("tc-configuration-config-service.xml");
+    TcConfiguration conf = TCConfigurationParser.parse(resource, loader, ParseOptions.defaults().withLazyPlugins(true));
+
+    assertThat(conf.getExtendedConfiguration(Integer.class).isEmpty(), is(true));
+    assertEquals(Arrays.asList("bar", "baz"), conf.getExtendedConfiguration(String.class));
+    assertEquals(Arrays.asList("bar", "baz"), conf.getExtendedConfiguration(CharSequence.class));
+    List<ServiceProviderConfiguration> serviceConfigurations = conf.getServiceConfigurations();
+    assertThat(conf.getServiceConfigurations(), sameInstance(serviceConfigurations));
+    assertEquals("foo", ((FooServiceProviderConfiguration) serviceConfigurations.get(0)).getFoo().getName());
+  }
+
+  @Test
+  public void testTypeIndexedLookups() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-config-service.xml");
+    TcConfiguration conf = TCConfigurationParser.parse(resource);
+
+    List<String> configs = conf.getExtendedConfiguration(String.class);
+    assertEquals(Arrays.asList("bar", "baz"), configs);
+    assertThat(conf.getExtendedConfiguration(String.class), sameInstance(configs));
+    assertThat(conf.getExtendedConfiguration(Integer.class).isEmpty(), is(true));
+
+    ServiceProviderConfiguration foo = conf.getServiceConfigurations().get(0);
+    List<ServiceProviderConfiguration> byType = conf.getServiceConfigurations(foo.getServiceProviderType());
+    assertEquals(Collections.singletonList(foo), byType);
+    assertThat(conf.getServiceConfigurations(foo.getServiceProviderType()), sameInstance(byType));
+    assertThat(conf.getServiceConfigurations(Object.class).isEmpty(), is(true));
+  }
+
+  @Test (expected = UnsupportedOperationException.class)
+  public void testExtendedConfigurationIsImmutable() throws Exception {
+    URL resource = Thread.currentThread().getContextClassLoader().getResource("tc-configuration-config-service.xml");
+    TCConfigurationParser.parse(resource).getExtendedConfiguration(String.class).add("qux");
+  }
+}
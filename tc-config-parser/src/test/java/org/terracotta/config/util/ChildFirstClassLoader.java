@@ -0,0 +1,55 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Defines the named classes itself, from the location of the test classes, as an application or plugin class loader
+ * would; everything else comes from the parent.
+ */
+public class ChildFirstClassLoader extends URLClassLoader {
+
+  private final List<String> prefixes;
+
+  public ChildFirstClassLoader(ClassLoader parent, String... prefixes) {
+    super(new URL[] { ChildFirstClassLoader.class.getProtectionDomain().getCodeSource().getLocation() }, parent);
+    this.prefixes = Arrays.asList(prefixes);
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    for (String prefix : prefixes) {
+      if (name.startsWith(prefix)) {
+        synchronized (getClassLoadingLock(name)) {
+          Class<?> type = findLoadedClass(name);
+          if (type == null) {
+            type = findClass(name);
+          }
+          if (resolve) {
+            resolveClass(type);
+          }
+          return type;
+        }
+      }
+    }
+    return super.loadClass(name, resolve);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class HostIdentityTest {
+
+  private static final InetAddress LOCAL = address("host.example.com", 10, 0, 0, 1);
+  private static final InetAddress INTERFACE = address(null, 192, 168, 0, 7);
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    HostIdentity.configure(HostResolver.jdk(), Long.getLong(HostIdentity.TIMEOUT_PROPERTY, 5000));
+  }
+
+  @Test
+  public void testResolvedValues() {
+    HostIdentity.configure(new StubResolver(LOCAL, false, INTERFACE), 5000);
+
+    assertThat(HostIdentity.getHostName(), is("host"));
+    assertThat(HostIdentity.getCanonicalHostName(), is("host.example.com"));
+    assertThat(HostIdentity.getIpAddress(), is("10.0.0.1"));
+  }
+
+  @Test
+  public void testSlowLookupFallsBackToInterfaceAddress() throws Exception {
+    StubResolver stub = new StubResolver(LOCAL, true, INTERFACE);
+    HostIdentity.configure(stub, 100);
+
+    assertThat(HostIdentity.getHostName(), is("host"));
+    assertThat(HostIdentity.getCanonicalHostName(), is("192.168.0.7"));
+    assertThat(HostIdentity.getIpAddress(), is("10.0.0.1"));
+    assertTrue(HostIdentity.getResolutionTimeMillis() >= 0);
+
+    // the late lookup does not replace the fallback already handed out...
+    release.countDown();
+    assertTrue(stub.reverseLookupDone.await(10, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    assertThat(HostIdentity.getCanonicalHostName(), is("192.168.0.7"));
+
+    // ...until refreshed, which adopts it without looking it up again
+    int lookups = stub.canonicalLookups.get();
+    HostIdentity.refresh();
+    assertThat(HostIdentity.getCanonicalHostName(), is("host.example.com"));
+    assertThat(HostIdentity.getHostName(), is("host"));
+    assertThat(stub.canonicalLookups.get(), is(lookups));
+  }
+
+  @Test
+  public void testResolutionStartsWithHostTemplates() throws Exception {
+    StubResolver stub = new StubResolver(LOCAL, false, INTERFACE);
+    HostIdentity.configure(stub, 5000);
+
+    assertThat(SubstitutionTemplate.compile("logs/%(user.name)").usesHostIdentity(), is(false));
+    assertThat(stub.lookups.get(), is(0));
+
+    assertThat(SubstitutionTemplate.compile("logs/%c").usesHostIdentity(), is(true));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (stub.lookups.get() < 3 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(stub.lookups.get(), is(3));
+  }
+
+  @Test
+  public void testUnresolvableHostFallsBackToLoopback() {
+    HostIdentity.configure(new StubResolver(null, false, null), 5000);
+
+    String loopback = InetAddress.getLoopbackAddress().getHostAddress();
+    assertThat(HostIdentity.getHostName(), is(loopback));
+    assertThat(HostIdentity.getIpAddress(), is(loopback));
+  }
+
+  private static InetAddress address(String host, int... bytes) {
+    byte[] raw = new byte[bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      raw[i] = (byte) bytes[i];
+    }
+    try {
+      return InetAddress.getByAddress(host, raw);
+    } catch (UnknownHostException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private class StubResolver implements HostResolver {
+
+    private final InetAddress localHost;
+    private final boolean slowReverseLookup;
+    private final InetAddress interfaceAddress;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger canonicalLookups = new AtomicInteger();
+    private final CountDownLatch reverseLookupDone = new CountDownLatch(1);
+
+    StubResolver(InetAddress localHost, boolean slowReverseLookup, InetAddress interfaceAddress) {
+      this.localHost = localHost;
+      this.slowReverseLookup = slowReverseLookup;
+      this.interfaceAddress = interfaceAddress;
+    }
+
+    @Override
+    public InetAddress getLocalHost() throws UnknownHostException {
+      lookups.incrementAndGet();
+      if (localHost == null) {
+        throw new UnknownHostException("stub");
+      }
+      return localHost;
+    }
+
+    @Override
+    public String getHostName(InetAddress address) {
+      return "host";
+    }
+
+    @Override
+    public String getCanonicalHostName(InetAddress address) {
+      canonicalLookups.incrementAndGet();
+      if (slowReverseLookup) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        reverseLookupDone.countDown();
+      }
+      return "host.example.com";
+    }
+
+    @Override
+    public InetAddress getInterfaceAddress() {
+      return interfaceAddress;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoaderCacheTest {
+
+  @Test
+  public void testValueIsComputedOncePerLoader() throws Exception {
+    LoaderCache<Object> cache = new LoaderCache<>(loader -> new Object(), Collections::singletonList);
+    ClassLoader loader = new ChildFirstClassLoader(getClass().getClassLoader());
+
+    assertThat(cache.peek(loader), nullValue());
+    Object value = cache.get(loader);
+    assertThat(cache.get(loader), sameInstance(value));
+    assertThat(cache.get(getClass().getClassLoader()), not(sameInstance(value)));
+  }
+
+  @Test
+  public void testValueDefinedByItsLoaderLivesAsLongAsTheLoader() throws Exception {
+    LoaderCache<List<Object>> cache = new LoaderCache<>(LoaderCacheTest::resolverOf, values -> values);
+    ClassLoader loader = new ChildFirstClassLoader(getClass().getClassLoader(), CountingTokenResolver.class.getName());
+    List<Object> value = cache.get(loader);
+    assertThat(value.get(0).getClass().getClassLoader(), sameInstance(loader));
+
+    // only weakly held by the cache, but reachable from the loader
+    WeakReference<List<Object>> valueReference = new WeakReference<>(value);
+    value = null;
+    collectGarbage(valueReference, 5);
+    assertThat(cache.get(loader), sameInstance(valueReference.get()));
+
+    WeakReference<ClassLoader> loaderReference = new WeakReference<>(loader);
+    loader = null;
+    collectGarbage(loaderReference, 100);
+    assertThat(loaderReference.get(), nullValue());
+  }
+
+  @Test
+  public void testValueNotDefinedByItsLoaderDoesNotKeepIt() throws Exception {
+    LoaderCache<List<Object>> cache = new LoaderCache<>(loader -> Collections.singletonList(new Object()), values -> values);
+    ClassLoader loader = new ChildFirstClassLoader(getClass().getClassLoader());
+    List<Object> value = cache.get(loader);
+
+    WeakReference<List<Object>> valueReference = new WeakReference<>(value);
+    value = null;
+    collectGarbage(valueReference, 5);
+    assertThat(cache.get(loader), sameInstance(valueReference.get()));
+
+    WeakReference<ClassLoader> loaderReference = new WeakReference<>(loader);
+    loader = null;
+    collectGarbage(loaderReference, 100);
+    assertThat(loaderReference.get(), nullValue());
+  }
+
+  private static List<Object> resolverOf(ClassLoader loader) {
+    try {
+      return Collections.singletonList(loader.loadClass(CountingTokenResolver.class.getName()).newInstance());
+    } catch (ReflectiveOperationException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static void collectGarbage(WeakReference<?> reference, int attempts) throws InterruptedException {
+    for (int i = 0; i < attempts && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.junit.Test;
+import org.terracotta.config.TCConfigurationSetupException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SubstitutionContextTest {
+
+  @Test
+  public void testSystemPropertyDefault() throws Exception {
+    assertThat(ParameterSubstitutor.substitute("%(tc.config.test.unset:fallback)"), is("fallback"));
+    assertThat(ParameterSubstitutor.substitute("%(tc.config.test.unset)"), is("%(tc.config.test.unset)"));
+    assertThat(ParameterSubstitutor.substitute("%(user.name:fallback)"), is(System.getProperty("user.name")));
+  }
+
+  @Test
+  public void testTokenResolversAreMemoizedPerContext() throws Exception {
+    SubstitutionContext context = SubstitutionContext.create();
+    String first = context.substitute("%{count:a}");
+    assertThat(context.substitute("x-%{count:a}"), is("x-" + first));
+    assertThat(context.substitute("%{unknown:a}"), is("%{unknown:a}"));
+    assertThat(context.getBindings().get("%{count:a}"), is(first));
+
+    assertThat(SubstitutionContext.create().substitute("%{count:a}"), not(first));
+  }
+
+  @Test
+  public void testDeterministicContextSkipsVolatileResolvers() throws Exception {
+    SubstitutionContext context = SubstitutionContext.create();
+    context.substitute("%(user.name)-%o");
+    assertThat(context.isDeterministic(), is(true));
+    context.substitute("%D");
+    assertThat(context.isDeterministic(), is(false));
+
+    int resolutions = CountingTokenResolver.RESOLUTIONS.get();
+    SubstitutionContext check = SubstitutionContext.createDeterministic(getClass().getClassLoader());
+    assertThat(check.substitute("%(user.name)"), is(System.getProperty("user.name")));
+    assertThat(check.isDeterministic(), is(true));
+    assertThat(check.substitute("%{count:a}"), is("%{count:a}"));
+    assertThat(check.isDeterministic(), is(false));
+    assertThat(CountingTokenResolver.RESOLUTIONS.get(), is(resolutions));
+  }
+
+  @Test
+  public void testFileToken() throws Exception {
+    Path file = Files.createTempFile("tc-config-token", ".txt");
+    try {
+      Files.write(file, " secret\n".getBytes(StandardCharsets.UTF_8));
+      assertThat(SubstitutionContext.create().substitute("%{file:" + file + "}"), is("secret"));
+    } finally {
+      Files.delete(file);
+    }
+
+    try {
+      SubstitutionContext.create().substitute("%{file:" + file + "}");
+      fail("Expected TCConfigurationSetupException");
+    } catch (TCConfigurationSetupException e) {
+      assertThat(e.getMessage(), containsString("%{file:" + file + "}"));
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SubstitutionTemplateTest {
+
+  @Test
+  public void testSubstitutionTemplate() throws Exception {
+    SubstitutionTemplate template = SubstitutionTemplate.compile("logs/%h-%(user.name)%x");
+    assertThat(SubstitutionTemplate.compile("logs/%h-%(user.name)%x"), sameInstance(template));
+    assertThat(template.render(), is("logs/" + ParameterSubstitutor.getHostName() + "-" + System.getProperty("user.name") + "%x"));
+    assertThat(SubstitutionTemplate.compile("0.0.0.0").hasParameters(), is(false));
+  }
+
+  @Test
+  public void testCacheEvictsLeastRecentlyUsedTemplates() throws Exception {
+    SubstitutionTemplate hot = SubstitutionTemplate.compile("hot/%(user.name)");
+    SubstitutionTemplate cold = SubstitutionTemplate.compile("cold/%(user.name)");
+    for (int i = 0; i < 4096; i++) {
+      SubstitutionTemplate.compile("filler-" + i + "/%(user.name)");
+      assertThat(SubstitutionTemplate.compile("hot/%(user.name)"), sameInstance(hot));
+    }
+    assertThat(SubstitutionTemplate.compile("cold/%(user.name)"), not(sameInstance(cold)));
+  }
+}
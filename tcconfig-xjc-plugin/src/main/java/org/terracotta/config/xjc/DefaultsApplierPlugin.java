@@ -0,0 +1,250 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.config.xjc;
+
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.Plugin;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CNonElement;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import com.sun.xml.xsom.XmlString;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XJC plugin that generates, in every package it compiles, a {@code DefaultsApplier} class setting the XSD
+ * {@code default=} values of elements directly on the generated types.
+ * <p>
+ * The generated code does exactly what {@code org.terracotta.config.util.DefaultSubstitutor} does reflectively: a
+ * missing element with a default gets its default value (or a new instance carrying it, for simple-content types), and
+ * the walk continues into every child object of a generated type. Attribute defaults are left to the generated
+ * getters, as they always were, so that the bound objects (and their marshalled form) stay the same.
+ * <p>
+ * Enable it with the {@code -Xdefaults-applier} argument, with this artifact on the XJC plugin classpath:
+ * <pre>
+ *   &lt;args&gt;
+ *     &lt;arg&gt;-Xdefaults-applier&lt;/arg&gt;
+ *   &lt;/args&gt;
+ *   &lt;plugins&gt;
+ *     &lt;plugin&gt;
+ *       &lt;groupId&gt;org.terracotta&lt;/groupId&gt;
+ *       &lt;artifactId&gt;tcconfig-xjc-plugin&lt;/artifactId&gt;
+ *       &lt;version&gt;...&lt;/version&gt;
+ *     &lt;/plugin&gt;
+ *   &lt;/plugins&gt;
+ * </pre>
+ */
+public class DefaultsApplierPlugin extends Plugin {
+
+  static final String OPTION_NAME = "Xdefaults-applier";
+  static final String CLASS_NAME = "DefaultsApplier";
+  static final String METHOD_NAME = "applyDefaults";
+
+  @Override
+  public String getOptionName() {
+    return OPTION_NAME;
+  }
+
+  @Override
+  public String getUsage() {
+    return "  -" + OPTION_NAME + "  :  generate a reflection-free " + CLASS_NAME + " applying schema defaults in each package";
+  }
+
+  @Override
+  public boolean run(Outline outline, Options options, ErrorHandler errorHandler) throws SAXException {
+    JCodeModel codeModel = outline.getCodeModel();
+
+    Map<JPackage, JDefinedClass> appliers = new HashMap<>();
+    Map<CClassInfo, ClassOutline> classes = new HashMap<>();
+    for (ClassOutline classOutline : outline.getClasses()) {
+      classes.put(classOutline.target, classOutline);
+      JPackage pkg = classOutline._package()._package();
+      if (!appliers.containsKey(pkg)) {
+        try {
+          JDefinedClass applier = pkg._class(JMod.PUBLIC | JMod.FINAL, CLASS_NAME);
+          applier.javadoc().add("Applies the default values declared in the schema to the bound types of this package.\n"
+                                + "Generated by the " + OPTION_NAME + " XJC plugin.");
+          applier.constructor(JMod.PRIVATE);
+          appliers.put(pkg, applier);
+        } catch (JClassAlreadyExistsException e) {
+          errorHandler.error(new SAXParseException("Cannot generate " + pkg.name() + "." + CLASS_NAME + ": a class with that name already exists", null));
+          return false;
+        }
+      }
+    }
+
+    List<ClassOutline> subclassesFirst = new ArrayList<>(outline.getClasses());
+    subclassesFirst.sort(Comparator.comparingInt(DefaultsApplierPlugin::depth).reversed());
+
+    for (JDefinedClass applier : appliers.values()) {
+      generateDispatcher(codeModel, applier, subclassesFirst, appliers);
+    }
+    for (ClassOutline classOutline : outline.getClasses()) {
+      generateTypedMethod(outline, classOutline, appliers, classes);
+    }
+    return true;
+  }
+
+  /**
+   * {@code applyDefaults(Object)}: routes an object of any generated type to its typed method, ignores anything else.
+   */
+  private static void generateDispatcher(JCodeModel codeModel, JDefinedClass applier, List<ClassOutline> subclassesFirst,
+                                         Map<JPackage, JDefinedClass> appliers) {
+    JMethod method = applier.method(JMod.PUBLIC | JMod.STATIC, codeModel.VOID, METHOD_NAME);
+    JVar o = method.param(codeModel.ref(Object.class), "o");
+    JBlock body = method.body();
+    for (ClassOutline classOutline : subclassesFirst) {
+      JBlock then = body._if(o._instanceof(classOutline.implClass))._then();
+      then.add(applierOf(classOutline, appliers).staticInvoke(METHOD_NAME).arg(JExpr.cast(classOutline.implClass, o)));
+      then._return();
+    }
+  }
+
+  /**
+   * {@code applyDefaults(T)}: fills in the defaults of one generated type and walks into its children.
+   */
+  private static void generateTypedMethod(Outline outline, ClassOutline classOutline, Map<JPackage, JDefinedClass> appliers,
+                                          Map<CClassInfo, ClassOutline> classes) {
+    JCodeModel codeModel = outline.getCodeModel();
+    JDefinedClass applier = applierOf(classOutline, appliers);
+    JMethod method = applier.method(JMod.PUBLIC | JMod.STATIC, codeModel.VOID, METHOD_NAME);
+    JVar o = method.param(classOutline.implClass, "o");
+    JBlock body = method.body();
+    body._if(o.eq(JExpr._null()))._then()._return();
+
+    ClassOutline superClass = classOutline.getSuperClass();
+    if (superClass != null) {
+      body.add(applierOf(superClass, appliers).staticInvoke(METHOD_NAME).arg(JExpr.cast(superClass.implClass, o)));
+    }
+
+    for (FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+      CPropertyInfo property = fieldOutline.getPropertyInfo();
+      JFieldVar field = classOutline.implClass.fields().get(property.getName(false));
+      if (field == null) {
+        continue;
+      }
+      JFieldRef ref = o.ref(field);
+
+      if (!property.isCollection() && !field.type().isPrimitive()) {
+        generateDefault(outline, property, ref, body, appliers, classes);
+      }
+
+      if (refersToGeneratedClass(property)) {
+        JBlock then = body._if(ref.ne(JExpr._null()))._then();
+        if (property.isCollection()) {
+          JForEach each = then.forEach(codeModel.ref(Object.class), "e", ref);
+          each.body().add(applier.staticInvoke(METHOD_NAME).arg(each.var()));
+        } else {
+          then.add(applier.staticInvoke(METHOD_NAME).arg(ref));
+        }
+      }
+    }
+  }
+
+  private static void generateDefault(Outline outline, CPropertyInfo property, JFieldRef ref, JBlock body,
+                                      Map<JPackage, JDefinedClass> appliers, Map<CClassInfo, ClassOutline> classes) {
+    if (property instanceof CElementPropertyInfo) {
+      List<CTypeRef> types = ((CElementPropertyInfo) property).getTypes();
+      if (types.size() != 1 || types.get(0).defaultValue == null) {
+        return;
+      }
+      CNonElement target = types.get(0).getTarget();
+      XmlString defaultValue = types.get(0).defaultValue;
+      if (target instanceof CClassInfo) {
+        // a simple-content type: create it with its own defaults, then set its value
+        ClassOutline child = classes.get(target);
+        CValuePropertyInfo valueProperty = valuePropertyOf((CClassInfo) target);
+        if (child == null || valueProperty == null) {
+          return;
+        }
+        JExpression value = valueProperty.getTarget().createConstant(outline, defaultValue);
+        if (value == null) {
+          return;
+        }
+        JBlock then = body._if(ref.eq(JExpr._null()))._then();
+        JVar instance = then.decl(child.implClass, "value", JExpr._new(child.implClass));
+        then.add(applierOf(child, appliers).staticInvoke(METHOD_NAME).arg(instance));
+        then.add(instance.invoke("set" + valueProperty.getName(true)).arg(value));
+        then.assign(ref, instance);
+      } else {
+        JExpression value = target.createConstant(outline, defaultValue);
+        if (value != null) {
+          body._if(ref.eq(JExpr._null()))._then().assign(ref, value);
+        }
+      }
+    }
+  }
+
+  private static CValuePropertyInfo valuePropertyOf(CClassInfo type) {
+    for (CClassInfo c = type; c != null; c = c.getBaseClass()) {
+      for (CPropertyInfo property : c.getProperties()) {
+        if (property instanceof CValuePropertyInfo) {
+          return (CValuePropertyInfo) property;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean refersToGeneratedClass(CPropertyInfo property) {
+    for (CTypeInfo type : property.ref()) {
+      if (type instanceof CClassInfo) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static JDefinedClass applierOf(ClassOutline classOutline, Map<JPackage, JDefinedClass> appliers) {
+    return appliers.get(classOutline._package()._package());
+  }
+
+  private static int depth(ClassOutline classOutline) {
+    int depth = 0;
+    for (ClassOutline c = classOutline.getSuperClass(); c != null; c = c.getSuperClass()) {
+      depth++;
+    }
+    return depth;
+  }
+}